@@ -3,6 +3,8 @@ plugins {
     application
     id("org.springframework.boot") version "3.1.0"
     id("io.spring.dependency-management") version "1.1.0"
+    // JMH micro-benchmarks in "src/jmh/java", run with "./gradlew jmh"
+    id("me.champeau.jmh") version "0.7.1"
 }
 
 group = "sia"
@@ -29,6 +31,9 @@ dependencies {
     implementation("org.springframework.boot:spring-boot-starter-web")
     implementation("org.springframework.boot:spring-boot-starter-validation")
     implementation("org.springframework.boot:spring-boot-starter-jdbc")
+    implementation("org.springframework.boot:spring-boot-starter-actuator")
+    // Metrics in Prometheus format at /actuator/prometheus
+    runtimeOnly("io.micrometer:micrometer-registry-prometheus")
 
     implementation("org.jetbrains:annotations:24.0.0")
     implementation("jakarta.validation:jakarta.validation-api:3.0.2")
@@ -53,6 +58,9 @@ dependencies {
 
     testImplementation("org.springframework.boot:spring-boot-starter-test")
 
+    // MockMvc for the benchmarks that go through the web layer
+    jmh("org.springframework.boot:spring-boot-starter-test")
+
 
 }
 
@@ -66,6 +74,86 @@ tasks.withType<Test> {
     useJUnitPlatform()
 }
 
+// Whole-application load test in "src/loadTest/java", run with "./gradlew loadTest", which is
+// not part of "check". Settings go in as e.g. "-Pload.users=64 -Pload.duration-seconds=120",
+// see LoadSettings. "-Pload.java=21" runs it on Java 21, which adds the virtual-thread mode.
+val loadTest: SourceSet = sourceSets.create("loadTest") {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+configurations["loadTestImplementation"].extendsFrom(configurations.implementation.get(), configurations.testImplementation.get())
+configurations["loadTestRuntimeOnly"].extendsFrom(configurations.runtimeOnly.get(), configurations.testRuntimeOnly.get())
+
+tasks.register<Test>("loadTest") {
+    description = "Runs the load test of the design-to-order flow"
+    group = "verification"
+    testClassesDirs = loadTest.output.classesDirs
+    classpath = loadTest.runtimeClasspath
+    shouldRunAfter(tasks.test)
+    if (project.hasProperty("load.java")) {
+        javaLauncher.set(javaToolchains.launcherFor {
+            languageVersion.set(JavaLanguageVersion.of(project.property("load.java") as String))
+        })
+    }
+    // the outcome depends on the machine, never consider it up to date
+    outputs.upToDateWhen { false }
+    project.properties.filterKeys { it.startsWith("load.") }.forEach { (key, value) ->
+        systemProperty("tacos.$key", value.toString())
+    }
+    testLogging {
+        showStandardStreams = true
+    }
+}
+
+// The last load test reports become the baseline: "./gradlew loadTest loadTestSaveBaseline"
+tasks.register<Copy>("loadTestSaveBaseline") {
+    description = "Saves the last load test reports as the baseline"
+    group = "verification"
+    from(layout.buildDirectory.dir("reports/loadTest")) {
+        include("results-*.json")
+    }
+    into(layout.projectDirectory.dir("src/loadTest/baseline"))
+}
+
+jmh {
+    jmhVersion.set("1.36")
+    // Restrict to some benchmarks with e.g. "./gradlew jmh -Pjmh.includes=IngredientId"
+    if (project.hasProperty("jmh.includes")) {
+        includes.set(listOf(project.property("jmh.includes") as String))
+    }
+    // The "gc" profiler (allocation per operation) is on by default; choose others with e.g.
+    // "./gradlew jmh -Pjmh.profilers=gc,stack", or none with "-Pjmh.profilers="
+    profilers.set(((project.findProperty("jmh.profilers") ?: "gc") as String).split(",").filter { it.isNotBlank() })
+    // JSON results, for the comparison with the baseline below
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+}
+
+// The last JMH results become the baseline: "./gradlew jmh jmhSaveBaseline"
+val jmhBaseline = layout.projectDirectory.file("src/jmh/baseline/results.json")
+
+tasks.register<Copy>("jmhSaveBaseline") {
+    description = "Saves the last JMH results as the baseline"
+    group = "benchmark"
+    from(layout.buildDirectory.file("results/jmh/results.json"))
+    into(jmhBaseline.asFile.parentFile)
+}
+
+// Fails if the last JMH results are worse than the baseline by more than 10% (time or
+// allocation per operation): "./gradlew jmh jmhCompareBaseline -Pjmh.tolerance=0.05"
+tasks.register<JavaExec>("jmhCompareBaseline") {
+    description = "Compares the last JMH results with the baseline"
+    group = "benchmark"
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("tacos.baseline.BenchmarkBaseline")
+    args(
+        layout.buildDirectory.file("results/jmh/results.json").get().asFile.path,
+        jmhBaseline.asFile.path,
+        (project.findProperty("jmh.tolerance") ?: "0.10") as String
+    )
+    mustRunAfter("jmh")
+}
+
 tasks.withType<Jar> {
 
     duplicatesStrategy = DuplicatesStrategy.EXCLUDE
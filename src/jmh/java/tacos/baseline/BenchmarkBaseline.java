@@ -0,0 +1,145 @@
+package tacos.baseline;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+// ---
+// Compares a JMH result file (JSON) with a baseline result file, as done by
+// "./gradlew jmhCompareBaseline" after "./gradlew jmh":
+//
+//   BenchmarkBaseline <results.json> <baseline.json> [tolerance]
+//
+// Benchmarks are matched on name, mode and parameters. A benchmark regresses if its score is
+// worse than the baseline by more than the tolerance (a fraction, 0.10 by default): lower for
+// throughput, higher for the time modes. When both files have the allocation per operation
+// of the "gc" profiler, more allocation than the baseline (beyond the tolerance and a few
+// bytes of slack) is a regression too. Exits with 1 if anything regressed.
+// Benchmarks only in one of the files are listed but don't fail the comparison.
+// ---
+
+public final class BenchmarkBaseline {
+
+    private final static String allocationMetric = "gc.alloc.rate.norm";
+
+    // allocation differences below this are noise of the gc profiler (bytes/op)
+    private final static double allocationSlack = 16.0;
+
+    private BenchmarkBaseline() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: BenchmarkBaseline <results.json> <baseline.json> [tolerance]");
+            System.exit(2);
+        }
+        final File resultsFile = new File(args[0]);
+        final File baselineFile = new File(args[1]);
+        if (!resultsFile.isFile()) {
+            System.err.println("No JMH results at '" + resultsFile + "', run './gradlew jmh' first");
+            System.exit(2);
+        }
+        if (!baselineFile.isFile()) {
+            System.err.println("No baseline at '" + baselineFile + "', save one with './gradlew jmhSaveBaseline'");
+            System.exit(2);
+        }
+        final double tolerance = (args.length == 3) ? Double.parseDouble(args[2]) : 0.10;
+        final Map<String, JsonNode> results = readResults(resultsFile);
+        final Map<String, JsonNode> baseline = readResults(baselineFile);
+        final int regressions = compare(results, baseline, tolerance);
+        if (regressions > 0) {
+            System.out.println(regressions + " regression(s) beyond " + Math.round(tolerance * 100) + "%");
+            System.exit(1);
+        }
+        System.out.println("No regression beyond " + Math.round(tolerance * 100) + "%");
+    }
+
+    // ---
+    // The results of a JMH JSON file, keyed by benchmark, mode and parameters.
+    // ---
+
+    static @NotNull Map<String, JsonNode> readResults(@NotNull File file) throws IOException {
+        final Map<String, JsonNode> res = new TreeMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            res.put(keyOf(result), result);
+        }
+        return res;
+    }
+
+    static @NotNull String keyOf(@NotNull JsonNode result) {
+        final StringBuilder buf = new StringBuilder();
+        buf.append(result.path("benchmark").asText()).append(" [").append(result.path("mode").asText()).append("]");
+        final JsonNode params = result.path("params");
+        if (params.isObject()) {
+            final Map<String, String> sorted = new TreeMap<>();
+            params.fields().forEachRemaining(entry -> sorted.put(entry.getKey(), entry.getValue().asText()));
+            sorted.forEach((name, value) -> buf.append(" ").append(name).append("=").append(value));
+        }
+        return buf.toString();
+    }
+
+    // ---
+    // Prints one line per benchmark and returns the number of regressions.
+    // ---
+
+    static int compare(@NotNull Map<String, JsonNode> results, @NotNull Map<String, JsonNode> baseline, double tolerance) {
+        int regressions = 0;
+        for (Map.Entry<String, JsonNode> entry : results.entrySet()) {
+            final JsonNode base = baseline.get(entry.getKey());
+            if (base == null) {
+                System.out.println("NEW        " + entry.getKey());
+                continue;
+            }
+            final JsonNode result = entry.getValue();
+            final boolean higherIsBetter = result.path("mode").asText().equals("thrpt");
+            final double score = result.path("primaryMetric").path("score").asDouble();
+            final double baseScore = base.path("primaryMetric").path("score").asDouble();
+            final String unit = result.path("primaryMetric").path("scoreUnit").asText();
+            final double change = (baseScore == 0.0) ? 0.0 : (score - baseScore) / baseScore;
+            boolean regressed = higherIsBetter ? (change < -tolerance) : (change > tolerance);
+            final StringBuilder line = new StringBuilder();
+            line.append(String.format("%.3f -> %.3f %s (%+.1f%%)", baseScore, score, unit, change * 100));
+            final Double alloc = allocationOf(result);
+            final Double baseAlloc = allocationOf(base);
+            if (alloc != null && baseAlloc != null) {
+                line.append(String.format(", %.0f -> %.0f B/op", baseAlloc, alloc));
+                if (alloc - baseAlloc > allocationSlack && alloc > baseAlloc * (1 + tolerance)) {
+                    regressed = true;
+                }
+            }
+            if (regressed) {
+                regressions++;
+            }
+            System.out.println((regressed ? "REGRESSED  " : "OK         ") + entry.getKey() + ": " + line);
+        }
+        for (String key : baseline.keySet()) {
+            if (!results.containsKey(key)) {
+                System.out.println("NOT RUN    " + key);
+            }
+        }
+        return regressions;
+    }
+
+    // ---
+    // The allocation per operation of the "gc" profiler, if it was on. Depending on the JMH
+    // version the metric is named "gc.alloc.rate.norm" or "·gc.alloc.rate.norm".
+    // ---
+
+    static @Nullable Double allocationOf(@NotNull JsonNode result) {
+        final Iterator<Map.Entry<String, JsonNode>> it = result.path("secondaryMetrics").fields();
+        while (it.hasNext()) {
+            final Map.Entry<String, JsonNode> metric = it.next();
+            if (metric.getKey().endsWith(allocationMetric)) {
+                return metric.getValue().path("score").asDouble();
+            }
+        }
+        return null;
+    }
+}
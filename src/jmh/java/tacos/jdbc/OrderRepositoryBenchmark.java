@@ -0,0 +1,105 @@
+package tacos.jdbc;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+import tacos.model.ingredients.IngredientId;
+import tacos.model.ingredients.IngredientRelation;
+import tacos.model.ingredients.source.IngredientsSourceHardcoded;
+import tacos.model.taco.Taco;
+import tacos.model.taco.TacoOrder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// ---
+// Saving orders of 3 tacos into the embedded H2 (set up by "schema.sql" and "data.sql"):
+// 64 orders one by one, a transaction each ("oneByOne"), against the same 64 orders in one
+// transaction with one JDBC batch per table ("saveAll", as the OrderWriteBehindQueue does).
+// The time is per order.
+//
+// Run with: ./gradlew jmh -Pjmh.includes=OrderRepositoryBenchmark
+// ---
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderRepositoryBenchmark {
+
+    private final static int orderCount = 64;
+
+    private final static int tacosPerOrder = 3;
+
+    private EmbeddedDatabase database;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate transactionTemplate;
+
+    private OrderRepository orderRepository;
+
+    private List<TacoOrder> orders;
+
+    @Setup
+    public void setup() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScripts("schema.sql", "data.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(database));
+        orderRepository = new JdbcOrderRepository(jdbcTemplate, new SimpleMeterRegistry());
+        final IngredientRelation relation = new IngredientsSourceHardcoded().refresh();
+        orders = new ArrayList<>(orderCount);
+        for (int i = 0; i < orderCount; i++) {
+            final TacoOrder order = new TacoOrder();
+            for (int j = 0; j < tacosPerOrder; j++) {
+                final Taco taco = new Taco();
+                taco.setName("Taco number " + j);
+                for (String id : new String[]{"FLTO", "GRBF", "CHED", "SLSA"}) {
+                    taco.getIngredients().add(relation.getById(IngredientId.of(id)).orElseThrow());
+                }
+                order.addTaco(taco);
+            }
+            orders.add(order);
+        }
+    }
+
+    // The saved rows are not needed; keep the tables small
+
+    @TearDown(Level.Iteration)
+    public void deleteOrders() {
+        jdbcTemplate.update("delete from Ingredient_Ref");
+        jdbcTemplate.update("delete from Taco");
+        jdbcTemplate.update("delete from Taco_Order");
+    }
+
+    @TearDown
+    public void tearDown() {
+        database.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(orderCount)
+    public void oneByOne() {
+        for (TacoOrder order : orders) {
+            transactionTemplate.executeWithoutResult(status -> orderRepository.save(order));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(orderCount)
+    public void saveAll() {
+        transactionTemplate.executeWithoutResult(status -> orderRepository.saveAll(orders));
+    }
+}
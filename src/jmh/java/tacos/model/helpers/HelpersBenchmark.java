@@ -0,0 +1,57 @@
+package tacos.model.helpers;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+import tacos.model.taco.Taco;
+
+import java.util.concurrent.TimeUnit;
+
+// ---
+// The text helpers of the diagnostic log messages: Helpers.indent() on one line and on
+// several lines, and ErrorPrinter.printErrors() on the binding result of an invalid taco
+// (two field errors and a global one).
+//
+// Run with: ./gradlew jmh -Pjmh.includes=HelpersBenchmark
+// ---
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HelpersBenchmark {
+
+    private final static String oneLine = "Taco 'Benchmark Taco'";
+
+    private final static String severalLines = "Taco 'Benchmark Taco'\nWRAP: Flour Tortilla\nPROTEIN: Ground Beef"
+            + "\nVEGGIES: Diced Tomatoes & Lettuce\nCHEESE: Cheddar\nSAUCE: Salsa";
+
+    private Errors errors;
+
+    @Setup
+    public void setup() {
+        final Taco taco = new Taco();
+        taco.setName("Bad");
+        errors = new BeanPropertyBindingResult(taco, "taco");
+        errors.rejectValue("name", "Size", "Name must be at least 5 characters long");
+        errors.rejectValue("ingredients", "TacoIngredients", "Select at least one wrap");
+        errors.reject("busy", "We are very busy right now. Please submit your order again in a moment.");
+    }
+
+    @Benchmark
+    public String indentOneLine() {
+        return Helpers.indent(oneLine);
+    }
+
+    @Benchmark
+    public String indentSeveralLines() {
+        return Helpers.indent(severalLines);
+    }
+
+    @Benchmark
+    public String printErrors() {
+        return ErrorPrinter.printErrors(errors, Helpers.usualIndentCount);
+    }
+}
@@ -0,0 +1,64 @@
+package tacos.model.ingredients;
+
+import org.openjdk.jmh.annotations.*;
+import tacos.model.ingredients.source.IngredientsSourceHardcoded;
+
+import java.util.concurrent.TimeUnit;
+
+// ---
+// Compare IngredientId construction with the interning factory, and the lookup
+// of an ingredient by raw string via a new IngredientId with the allocation-free
+// lookup by CharSequence.
+//
+// Run with: ./gradlew jmh -Pjmh.includes=IngredientIdBenchmark
+// Add "-prof gc" (jmh { profilers }) to see the allocation rate.
+// ---
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IngredientIdBenchmark {
+
+    // An already normalized id (the fast path) and one that needs trimming and uppercasing
+
+    @Param({"FLTO", " flto "})
+    public String raw;
+
+    private IngredientRelation relation;
+
+    private StringBuilder rawAsBuilder;
+
+    @Setup
+    public void setup() {
+        relation = new IngredientsSourceHardcoded().refresh();
+        rawAsBuilder = new StringBuilder(raw);
+    }
+
+    @Benchmark
+    public IngredientId construct() {
+        return new IngredientId(raw);
+    }
+
+    @Benchmark
+    public IngredientId intern() {
+        return IngredientId.of(raw);
+    }
+
+    @Benchmark
+    public Ingredient lookupViaConstructor() {
+        return relation.getById(new IngredientId(raw)).orElse(null);
+    }
+
+    @Benchmark
+    public Ingredient lookupViaString() {
+        return relation.findById(raw);
+    }
+
+    @Benchmark
+    public Ingredient lookupViaStringBuilder() {
+        return relation.findById(rawAsBuilder);
+    }
+}
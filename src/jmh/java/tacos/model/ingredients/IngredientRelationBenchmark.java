@@ -0,0 +1,77 @@
+package tacos.model.ingredients;
+
+import org.openjdk.jmh.annotations.*;
+import tacos.model.ingredients.source.IngredientsSourceHardcoded;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// ---
+// Lookups and type queries on an IngredientRelation: by id, by raw string, by ordinal
+// and by type. With the hardcoded catalog and with 1000 more generated ingredients.
+//
+// Run with: ./gradlew jmh -Pjmh.includes=IngredientRelationBenchmark
+// ---
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IngredientRelationBenchmark {
+
+    @Param({"10", "1010"})
+    public int size;
+
+    private IngredientRelation relation;
+
+    private IngredientId id;
+
+    private int ordinal;
+
+    @Setup
+    public void setup() {
+        final List<Ingredient> ingredients = new ArrayList<>();
+        new IngredientsSourceHardcoded().refresh().getIngredientStream().forEach(ingredients::add);
+        final IngredientType[] types = IngredientType.values();
+        for (int i = ingredients.size(); i < size; i++) {
+            final IngredientType type = types[i % types.length];
+            ingredients.add(new Ingredient(new IngredientId(String.format("RELB%04d", i)), "Generated " + i, type));
+        }
+        relation = new IngredientRelation(ingredients);
+        id = IngredientId.of("CHED");
+        ordinal = relation.findById("CHED").getOrdinal();
+    }
+
+    @Benchmark
+    public Ingredient getById() {
+        return relation.getById(id).orElse(null);
+    }
+
+    @Benchmark
+    public Ingredient findByRawString() {
+        return relation.findById("ched");
+    }
+
+    @Benchmark
+    public Ingredient getByOrdinal() {
+        return relation.getByOrdinal(ordinal);
+    }
+
+    @Benchmark
+    public List<Ingredient> getByType() {
+        return relation.getByType(IngredientType.VEGGIES);
+    }
+
+    @Benchmark
+    public List<IngredientType> getTypesOccurring() {
+        return relation.getTypesOccurring();
+    }
+
+    @Benchmark
+    public boolean occurs() {
+        return relation.occurs(IngredientType.SAUCE);
+    }
+}
@@ -0,0 +1,50 @@
+package tacos.model.taco;
+
+import org.openjdk.jmh.annotations.*;
+import tacos.model.ingredients.IngredientRelation;
+import tacos.model.ingredients.IngredientSet;
+import tacos.model.ingredients.source.IngredientsSourceHardcoded;
+
+import java.util.concurrent.TimeUnit;
+
+// ---
+// Taco.toDetailedString() (the taco description of the diagnostic log messages) for a
+// taco with one ingredient of each type and one with everything.
+//
+// Run with: ./gradlew jmh -Pjmh.includes=TacoBenchmark
+// ---
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TacoBenchmark {
+
+    @Param({"oneOfEach", "everything"})
+    public String ingredients;
+
+    private Taco taco;
+
+    @Setup
+    public void setup() {
+        final IngredientRelation relation = new IngredientsSourceHardcoded().refresh();
+        final IngredientSet set = new IngredientSet();
+        if (ingredients.equals("everything")) {
+            relation.getIngredientStream().forEach(set::add);
+        } else {
+            for (String id : new String[]{"FLTO", "GRBF", "TMTO", "CHED", "SLSA"}) {
+                set.add(relation.findById(id));
+            }
+        }
+        taco = new Taco();
+        taco.setName("Benchmark Taco");
+        taco.setIngredients(set);
+    }
+
+    @Benchmark
+    public String toDetailedString() {
+        return taco.toDetailedString();
+    }
+}
@@ -0,0 +1,29 @@
+package tacos.validation;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// ---
+// CreditCardExpiryDateValidator.analyze() for a valid date (4-digit and 2-digit year, with
+// blanks), a month out of bounds, an expired date and a string that doesn't match at all.
+//
+// Run with: ./gradlew jmh -Pjmh.includes=CreditCardExpiryDateValidatorBenchmark
+// ---
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CreditCardExpiryDateValidatorBenchmark {
+
+    @Param({"12/2080", " 7 / 80 ", "13/2080", "01/2001", "whenever"})
+    public String value;
+
+    @Benchmark
+    public Object analyze() {
+        return CreditCardExpiryDateValidator.analyze(value);
+    }
+}
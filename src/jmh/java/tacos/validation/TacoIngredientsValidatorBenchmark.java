@@ -0,0 +1,83 @@
+package tacos.validation;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.ConstraintValidatorContext;
+import org.openjdk.jmh.annotations.*;
+import tacos.model.ingredients.Ingredient;
+import tacos.model.ingredients.IngredientCatalog;
+import tacos.model.ingredients.IngredientId;
+import tacos.model.ingredients.IngredientRelation;
+import tacos.model.ingredients.IngredientSet;
+import tacos.model.ingredients.source.IngredientsSourceHardcoded;
+
+import java.lang.reflect.Proxy;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// ---
+// Validate a valid and an invalid taco, with the ingredients held in an IngredientSet
+// (as in a Taco) and in a HashSet (the generic path).
+// With an IngredientSet, a valid taco should show ~0 B/op with the gc profiler;
+// with a HashSet, its Iterator may remain.
+//
+// Run with: ./gradlew jmh -Pjmh.includes=TacoIngredientsValidatorBenchmark
+// ---
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TacoIngredientsValidatorBenchmark {
+
+    @Param({"valid", "invalid"})
+    public String taco;
+
+    @Param({"IngredientSet", "HashSet"})
+    public String setType;
+
+    private TacoIngredientsValidator validator;
+
+    private Set<Ingredient> ingredients;
+
+    private ConstraintValidatorContext context;
+
+    @Setup
+    public void setup() {
+        final IngredientCatalog catalog = new IngredientCatalog(new IngredientsSourceHardcoded());
+        final IngredientRelation relation = catalog.get();
+        validator = new TacoIngredientsValidator(catalog, new SimpleMeterRegistry());
+        // the invalid taco has two wraps
+        final String[] ids = taco.equals("valid")
+                ? new String[]{"FLTO", "GRBF", "TMTO", "CHED", "SLSA"}
+                : new String[]{"FLTO", "COTO", "TMTO", "CHED"};
+        ingredients = setType.equals("IngredientSet") ? new IngredientSet() : new HashSet<>();
+        for (String id : ids) {
+            ingredients.add(relation.getById(IngredientId.of(id)).orElseThrow());
+        }
+        context = stubContext();
+    }
+
+    // A context that accepts whatever the validator does with it. The validator only
+    // touches it when there is a violation.
+
+    private static ConstraintValidatorContext stubContext() {
+        return (ConstraintValidatorContext) Proxy.newProxyInstance(
+                TacoIngredientsValidatorBenchmark.class.getClassLoader(),
+                new Class<?>[]{ConstraintValidatorContext.class, ConstraintValidatorContext.ConstraintViolationBuilder.class},
+                (proxy, method, args) -> {
+                    final Class<?> returnType = method.getReturnType();
+                    if (returnType.isInstance(proxy)) {
+                        return proxy;
+                    }
+                    return returnType == boolean.class ? Boolean.FALSE : null;
+                });
+    }
+
+    @Benchmark
+    public boolean validate() {
+        return validator.isValid(ingredients, context);
+    }
+}
@@ -0,0 +1,79 @@
+package tacos.web;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import tacos.TacoCloudApplication;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// ---
+// Throughput of GET "/design" and "/propose" through the full Spring MVC stack (MockMvc, so
+// that socket round trips don't drown the rendering cost), with the pre-rendered ingredient
+// checkboxes (gridCache = true) and with plain Thymeleaf (gridCache = false). Templates are
+// cached, as in production. All requests go through the same session.
+//
+// Run with: ./gradlew jmh -Pjmh.includes=DesignPageBenchmark
+// ---
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 10, time = 3) // the whole MVC stack takes a while to get compiled
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DesignPageBenchmark {
+
+    @Param({"true", "false"})
+    public String gridCache;
+
+    private ConfigurableApplicationContext context;
+
+    private MockMvc mockMvc;
+
+    private MockHttpSession session;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(TacoCloudApplication.class)
+                .run(   // command line arguments, as these take precedence over application.yml
+                        "--server.port=0",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.tacos=WARN",
+                        "--spring.thymeleaf.cache=true",
+                        "--spring.thymeleaf.prefix=classpath:/templates/",
+                        "--tacos.web.grid-cache=" + gridCache);
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+        session = new MockHttpSession();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int design() throws Exception {
+        return render("/design");
+    }
+
+    @Benchmark
+    public int propose() throws Exception {
+        return render("/propose");
+    }
+
+    private int render(String uri) throws Exception {
+        final MvcResult result = mockMvc.perform(get(uri).session(session)).andReturn();
+        if (result.getResponse().getStatus() != 200) {
+            throw new IllegalStateException("Got status " + result.getResponse().getStatus() + " for " + uri);
+        }
+        return result.getResponse().getContentAsString().length();
+    }
+}
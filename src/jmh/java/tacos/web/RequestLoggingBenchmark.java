@@ -0,0 +1,136 @@
+package tacos.web;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import tacos.model.helpers.Helpers;
+import tacos.model.ingredients.IngredientCatalog;
+import tacos.model.ingredients.source.IngredientsSourceHardcoded;
+import tacos.model.taco.Address;
+import tacos.model.taco.CreditCardInfo;
+import tacos.model.taco.Taco;
+import tacos.model.taco.TacoOrder;
+import tacos.web.common.TacoProposer;
+import tacos.web.logging.RequestCorrelationFilter;
+import tacos.web.logging.SampledDiagnosticsTurboFilter;
+
+import java.util.concurrent.TimeUnit;
+
+// ---
+// The logging done for one "propose a taco, then post it" round, as it was ("legacy": INFO
+// messages with eagerly built arguments, the "tacos" loggers enabled) and as it is now
+// ("guarded": DEBUG messages behind isDebugEnabled(), loggers at INFO). "sampled" is the
+// current code in a request picked by the RequestCorrelationFilter, i.e. with diagnostics.
+//
+// The appender does what the AsyncAppender does on the request thread (format the message,
+// copy the MDC) and drops the event. Run with "-prof gc" to see the allocation per round:
+// ./gradlew jmh -Pjmh.includes=RequestLoggingBenchmark -Pjmh.profilers=gc
+// ---
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestLoggingBenchmark {
+
+    private final static org.slf4j.Logger log = LoggerFactory.getLogger("tacos.web.RequestLoggingBenchmark");
+
+    private TacoProposer proposer;
+
+    @Setup
+    public void setup() {
+        final LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        context.reset();
+        context.addTurboFilter(new SampledDiagnosticsTurboFilter());
+        final AppenderBase<ILoggingEvent> appender = new AppenderBase<>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                event.prepareForDeferredProcessing();
+            }
+        };
+        appender.setContext(context);
+        appender.start();
+        final Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.INFO);
+        root.addAppender(appender);
+        proposer = new TacoProposer(new IngredientCatalog(new IngredientsSourceHardcoded()), 4);
+        MDC.put(RequestCorrelationFilter.requestIdKey, "0123456789abcdef");
+    }
+
+    @TearDown
+    public void tearDown() {
+        MDC.clear();
+    }
+
+    @Benchmark
+    public Object legacy() {
+        final Taco taco = new Taco();
+        log.info(">>> {} created", Helpers.makeLocator(taco));
+        taco.setIngredients(proposer.proposeIngredients());
+        taco.setName(proposer.proposeName());
+        log.info(">>> {}.taco(): new {} created", Helpers.makeLocator(this), Helpers.makeLocator(taco));
+        log.info(taco.toDetailedString());
+        log.info(">>> {}.showDesignForm()", Helpers.makeLocator(this));
+        final TacoOrder order = new TacoOrder();
+        log.info(">>> {}.order(): new empty {} created", Helpers.makeLocator(this), Helpers.makeLocator(order));
+        log.info(">>> {}.processTaco()", Helpers.makeLocator(this));
+        log.info(">>>>>> 'taco' argument is {}", Helpers.makeLocator(taco));
+        log.info(">>>>>> {}", taco.toDetailedString());
+        log.info(">>>>>> 'tacoOrder' argument is {}", Helpers.makeLocator(order));
+        final Address address = new Address();
+        log.info(">>> {} created", Helpers.makeLocator(address));
+        final CreditCardInfo ccInfo = new CreditCardInfo();
+        log.info(">>> {} created", Helpers.makeLocator(ccInfo));
+        return taco;
+    }
+
+    @Benchmark
+    public Object guarded() {
+        return current();
+    }
+
+    @Benchmark
+    public Object sampled() {
+        MDC.put(RequestCorrelationFilter.sampledKey, "true");
+        try {
+            return current();
+        } finally {
+            MDC.remove(RequestCorrelationFilter.sampledKey);
+        }
+    }
+
+    private Object current() {
+        final Taco taco = new Taco();
+        taco.setIngredients(proposer.proposeIngredients());
+        taco.setName(proposer.proposeName());
+        if (log.isDebugEnabled()) {
+            log.debug(">>> {}.taco(): new {} created", Helpers.makeLocator(this), Helpers.makeLocator(taco));
+            log.debug(taco.toDetailedString());
+        }
+        if (log.isDebugEnabled()) {
+            log.debug(">>> {}.showDesignForm()", Helpers.makeLocator(this));
+        }
+        final TacoOrder order = new TacoOrder();
+        if (log.isDebugEnabled()) {
+            log.debug(">>> {}.order(): new empty {} created", Helpers.makeLocator(this), Helpers.makeLocator(order));
+        }
+        if (log.isDebugEnabled()) {
+            log.debug(">>> {}.processTaco()", Helpers.makeLocator(this));
+        }
+        if (log.isDebugEnabled()) {
+            log.debug(">>>>>> 'taco' argument is {}", Helpers.makeLocator(taco));
+            log.debug(">>>>>> {}", taco.toDetailedString());
+            log.debug(">>>>>> 'tacoOrder' argument is {}", Helpers.makeLocator(order));
+        }
+        new Address();
+        new CreditCardInfo();
+        return taco;
+    }
+}
@@ -0,0 +1,131 @@
+package tacos.web;
+
+import org.openjdk.jmh.annotations.*;
+import tacos.model.ingredients.Ingredient;
+import tacos.model.ingredients.IngredientCatalog;
+import tacos.model.ingredients.IngredientId;
+import tacos.model.ingredients.IngredientRelation;
+import tacos.model.ingredients.IngredientSet;
+import tacos.model.ingredients.IngredientType;
+import tacos.model.ingredients.IngredientsSource;
+import tacos.model.ingredients.source.IngredientsSourceHardcoded;
+import tacos.web.common.TacoProposer;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// ---
+// Proposing a random taco (ingredients and name) with the TacoProposer, and with the former
+// implementation ("legacy": one shared Random, a shuffled copy of the list per type, the
+// name array rebuilt per call), at 1, 8 and 32 threads. The "large" catalog adds 1000
+// generated ingredients per type to the hardcoded ones; the proposer should not slow down.
+//
+// Run with: ./gradlew jmh -Pjmh.includes=TacoProposerBenchmark
+// ---
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TacoProposerBenchmark {
+
+    private final static Random rand = new Random();
+
+    @Param({"hardcoded", "large"})
+    public String catalogSize;
+
+    private IngredientRelation relation;
+
+    private TacoProposer proposer;
+
+    @Setup
+    public void setup() {
+        final IngredientsSource source = "large".equals(catalogSize) ? this::largeRelation : new IngredientsSourceHardcoded();
+        final IngredientCatalog catalog = new IngredientCatalog(source);
+        relation = catalog.get();
+        proposer = new TacoProposer(catalog, 4);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int proposer_1() {
+        return propose();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public int proposer_8() {
+        return propose();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public int proposer_32() {
+        return propose();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int legacy_1() {
+        return proposeLegacy();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public int legacy_8() {
+        return proposeLegacy();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public int legacy_32() {
+        return proposeLegacy();
+    }
+
+    private IngredientRelation largeRelation() {
+        final List<Ingredient> ingredients = new IngredientsSourceHardcoded().refresh().getIngredientStream().collect(Collectors.toCollection(ArrayList::new));
+        for (IngredientType type : IngredientType.values()) {
+            for (int i = 0; i < 1000; i++) {
+                final String id = String.format("BENCH_%s_%04d", type, i);
+                ingredients.add(new Ingredient(new IngredientId(id), "Bench " + type + " " + i, type));
+            }
+        }
+        return new IngredientRelation(ingredients);
+    }
+
+    private int propose() {
+        return proposer.proposeIngredients().size() + proposer.proposeName().length();
+    }
+
+    // ---
+    // The former ProposeTacoController code
+    // ---
+
+    private int proposeLegacy() {
+        final Set<Ingredient> res = new IngredientSet();
+        for (IngredientType type : relation.getTypesOccurring()) {
+            final List<Ingredient> available = new ArrayList<>(relation.getByType(type));
+            final int atMost = type.isExclusive() ? 1 : available.size();
+            final int atLeast = type.isMandatory() ? 1 : 0;
+            final int howMany = atLeast + rand.nextInt(atMost - atLeast + 1);
+            Collections.shuffle(available);
+            final Set<Ingredient> forThisType = available.stream().limit(howMany).collect(Collectors.toSet());
+            res.addAll(forThisType);
+        }
+        return res.size() + proposeNameLegacy().length();
+    }
+
+    private static String proposeNameLegacy() {
+        final String[] names = new String[]{
+                "Jester", "Touchdown", "Steamroller", "Clean Slate", "Boomstick",
+                "Beanstalk", "Elephant", "Brown Garden", "Desert Avalanche", "Pink Rhino",
+                "Hotcake", "Pigstick", "Dreamstate", "Surprise Party", "Resurrection",
+                "Lunar Eclipse", "Snowslide", "Jungle Citadel", "Ocean Rhino", "Hammer"};
+        final int randomInt = rand.nextInt(99) + 1;
+        final String randomName = names[rand.nextInt(names.length)];
+        return randomName + " " + randomInt;
+    }
+}
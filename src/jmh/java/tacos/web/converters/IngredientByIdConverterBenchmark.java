@@ -0,0 +1,39 @@
+package tacos.web.converters;
+
+import org.openjdk.jmh.annotations.*;
+import tacos.model.ingredients.Ingredient;
+import tacos.model.ingredients.IngredientCatalog;
+import tacos.model.ingredients.source.IngredientsSourceHardcoded;
+
+import java.util.concurrent.TimeUnit;
+
+// ---
+// IngredientByIdConverter.convert() for an id as sent by the form, for one that needs
+// normalizing, and for an unknown one. These calls come in bulk from Thymeleaf.
+//
+// Run with: ./gradlew jmh -Pjmh.includes=IngredientByIdConverterBenchmark
+// ---
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IngredientByIdConverterBenchmark {
+
+    @Param({"FLTO", " chEd ", "NOPE"})
+    public String id;
+
+    private IngredientByIdConverter converter;
+
+    @Setup
+    public void setup() {
+        converter = new IngredientByIdConverter(new IngredientCatalog(new IngredientsSourceHardcoded()), 1024);
+    }
+
+    @Benchmark
+    public Ingredient convert() {
+        return converter.convert(id);
+    }
+}
@@ -0,0 +1,96 @@
+package tacos.load;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// ---
+// Whole-application load test: the application on a random port, with the embedded H2
+// database and the "prod" settings (cached templates, sampled diagnostics), driven by
+// simulated users going through the design-to-order flow (see SessionFlow). Nothing leaves
+// the machine.
+//
+// The subclasses run it with the server on platform threads (PlatformThreadsLoadTest) and
+// on virtual threads (VirtualThreadsLoadTest, Java 21 only, e.g. "-Pload.java=21"). When
+// both ran, the two reports are also shown side by side.
+//
+// Run with "./gradlew loadTest" (settings in LoadSettings). Each report is printed and
+// written to build/reports/loadTest/results-<threads>.json; the test fails if a gate of the
+// settings is not met, or if the run is worse than the baseline. Save the baselines with
+// "./gradlew loadTest loadTestSaveBaseline".
+// ---
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("prod")
+abstract class DesignToOrderLoadTest {
+
+    // the reports of this JVM, by kind of threads
+
+    private final static Map<String, LoadReport.Result> finished = new ConcurrentHashMap<>();
+
+    @LocalServerPort
+    private int port;
+
+    // "platform" or "virtual"
+
+    protected abstract @NotNull String threads();
+
+    @Test
+    public void designToOrder() throws Exception {
+        final LoadSettings settings = LoadSettings.fromSystemProperties();
+        final long measureFrom = System.nanoTime() + settings.warmup().toNanos();
+        final long end = measureFrom + settings.duration().toNanos();
+        final List<SessionFlow> flows = new ArrayList<>();
+        for (int i = 0; i < settings.users(); i++) {
+            flows.add(new SessionFlow("http://localhost:" + port, measureFrom, end));
+        }
+        final ExecutorService users = Executors.newFixedThreadPool(settings.users());
+        final List<Future<?>> running = new ArrayList<>();
+        try {
+            for (SessionFlow flow : flows) {
+                running.add(users.submit(() -> {
+                    while (System.nanoTime() - end < 0) {
+                        flow.run();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : running) {
+                future.get();
+            }
+        } finally {
+            users.shutdownNow();
+            users.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        final Map<Endpoint, Samples> merged = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : Endpoint.values()) {
+            merged.put(endpoint, Samples.merge(flows.stream().map(flow -> flow.getSamples(endpoint)).toList()));
+        }
+        final LoadReport report = new LoadReport(settings, merged);
+        final String fileName = "results-" + threads() + ".json";
+        System.out.println("[" + threads() + " threads] " + report.format());
+        report.write(settings.reportDir().resolve(fileName));
+        finished.put(threads(), report.getResult());
+        if (finished.containsKey("platform") && finished.containsKey("virtual")) {
+            System.out.println(LoadReport.formatComparison("platform", finished.get("platform"), "virtual", finished.get("virtual")));
+        }
+        final Path baseline = settings.baselineDir().resolve(fileName);
+        final List<String> failures = report.check(settings, baseline);
+        assertTrue(failures.isEmpty(), String.join("\n", failures));
+    }
+}
@@ -0,0 +1,36 @@
+package tacos.load;
+
+import org.jetbrains.annotations.NotNull;
+
+// ---
+// The requests of one design-to-order flow (see SessionFlow), in the order they are made,
+// with the status that counts as success. The POSTs redirect; redirects are not followed,
+// the flow makes the next request itself.
+// ---
+
+enum Endpoint {
+
+    GET_DESIGN("GET /design", 200),
+    POST_DESIGN("POST /design", 302),
+    GET_PROPOSE("GET /propose", 200),
+    POST_PROPOSE("POST /propose", 302),
+    GET_ORDER("GET /orders/current", 200),
+    POST_ORDER("POST /orders", 302);
+
+    private final String label;
+
+    private final int expectedStatus;
+
+    Endpoint(@NotNull String label, int expectedStatus) {
+        this.label = label;
+        this.expectedStatus = expectedStatus;
+    }
+
+    public @NotNull String getLabel() {
+        return label;
+    }
+
+    public int getExpectedStatus() {
+        return expectedStatus;
+    }
+}
@@ -0,0 +1,161 @@
+package tacos.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// ---
+// The outcome of a load test run: per endpoint, requests per second, latency percentiles
+// and errors, plus the total throughput. Printed as a table, written as JSON (which can be
+// kept as the baseline of later runs) and checked against the gates of the LoadSettings.
+// Two runs of the same flow (e.g. platform and virtual threads) can be shown side by side.
+// ---
+
+final class LoadReport {
+
+    private final static double nanosPerMilli = 1_000_000.0;
+
+    // what is written as JSON, and read back from a baseline
+
+    record EndpointResult(long requests, long errors, double throughput,
+                          double p50Ms, double p99Ms, double p999Ms, @NotNull Map<String, Integer> errorsByCause) {
+    }
+
+    record Result(int users, long durationSeconds, double throughput, @NotNull Map<String, EndpointResult> endpoints) {
+    }
+
+    private final Result result;
+
+    LoadReport(@NotNull LoadSettings settings, @NotNull Map<Endpoint, Samples> merged) {
+        final double seconds = settings.duration().toNanos() / 1e9;
+        final Map<String, EndpointResult> endpoints = new LinkedHashMap<>();
+        long total = 0;
+        for (Endpoint endpoint : Endpoint.values()) {
+            final Samples samples = merged.get(endpoint);
+            total += samples.getCount();
+            endpoints.put(endpoint.getLabel(), new EndpointResult(
+                    samples.getCount(),
+                    samples.getErrors(),
+                    samples.getCount() / seconds,
+                    samples.percentile(0.50) / nanosPerMilli,
+                    samples.percentile(0.99) / nanosPerMilli,
+                    samples.percentile(0.999) / nanosPerMilli,
+                    samples.getErrorsByCause()));
+        }
+        this.result = new Result(settings.users(), settings.duration().toSeconds(), total / seconds, endpoints);
+    }
+
+    @NotNull Result getResult() {
+        return result;
+    }
+
+    @NotNull String format() {
+        final StringBuilder buf = new StringBuilder();
+        buf.append(String.format("Load test: %d users, %d s, %.1f requests/s%n",
+                result.users(), result.durationSeconds(), result.throughput()));
+        buf.append(String.format("%-22s %10s %10s %10s %10s %10s %8s%n",
+                "Endpoint", "Requests", "Req/s", "p50 ms", "p99 ms", "p999 ms", "Errors"));
+        result.endpoints().forEach((label, r) -> {
+            buf.append(String.format("%-22s %10d %10.1f %10.2f %10.2f %10.2f %8d%n",
+                    label, r.requests(), r.throughput(), r.p50Ms(), r.p99Ms(), r.p999Ms(), r.errors()));
+            r.errorsByCause().forEach((cause, n) -> buf.append(String.format("    %s: %d%n", cause, n)));
+        });
+        return buf.toString();
+    }
+
+    void write(@NotNull Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), result);
+    }
+
+    // ---
+    // The gates that failed, as messages; empty if the run passes.
+    // ---
+
+    @NotNull List<String> check(@NotNull LoadSettings settings, @Nullable Path baseline) throws IOException {
+        final List<String> res = new ArrayList<>();
+        result.endpoints().forEach((label, r) -> {
+            final long attempts = r.requests() + r.errors();
+            if (attempts == 0) {
+                res.add(label + ": no request completed");
+            } else if ((double) r.errors() / attempts > settings.maxErrorRate()) {
+                res.add(String.format("%s: %d errors in %d requests, more than %.2f%%",
+                        label, r.errors(), attempts, settings.maxErrorRate() * 100));
+            }
+            if (settings.maxP99Millis() > 0 && r.p99Ms() > settings.maxP99Millis()) {
+                res.add(String.format("%s: p99 of %.2f ms, more than %.2f ms", label, r.p99Ms(), settings.maxP99Millis()));
+            }
+        });
+        if (settings.minThroughput() > 0 && result.throughput() < settings.minThroughput()) {
+            res.add(String.format("%.1f requests/s, less than %.1f", result.throughput(), settings.minThroughput()));
+        }
+        if (baseline != null && Files.isRegularFile(baseline)) {
+            res.addAll(compare(new ObjectMapper().readTree(baseline.toFile()), settings));
+        }
+        return res;
+    }
+
+    // Throughput may drop by "tolerance", p99 latencies may rise by "latency-tolerance".
+    // Comparing runs with different numbers of users makes no sense, so they are not compared.
+
+    private @NotNull List<String> compare(@NotNull JsonNode baseline, @NotNull LoadSettings settings) {
+        final List<String> res = new ArrayList<>();
+        if (baseline.path("users").asInt() != result.users()) {
+            System.out.println("Baseline is for " + baseline.path("users").asInt() + " users, not compared");
+            return res;
+        }
+        final double baseThroughput = baseline.path("throughput").asDouble();
+        if (result.throughput() < baseThroughput * (1 - settings.tolerance())) {
+            res.add(String.format("%.1f requests/s, baseline %.1f", result.throughput(), baseThroughput));
+        }
+        result.endpoints().forEach((label, r) -> {
+            final JsonNode base = baseline.path("endpoints").path(label);
+            if (base.isMissingNode()) {
+                return;
+            }
+            final double baseP99 = base.path("p99Ms").asDouble();
+            if (baseP99 > 0 && r.p99Ms() > baseP99 * (1 + settings.latencyTolerance())) {
+                res.add(String.format("%s: p99 of %.2f ms, baseline %.2f ms", label, r.p99Ms(), baseP99));
+            }
+        });
+        return res;
+    }
+
+    // ---
+    // Two runs side by side, e.g. "platform" and "virtual" threads: per endpoint, requests per
+    // second and p99 latency of each, and the change from "a" to "b".
+    // ---
+
+    static @NotNull String formatComparison(@NotNull String labelA, @NotNull Result a, @NotNull String labelB, @NotNull Result b) {
+        final StringBuilder buf = new StringBuilder();
+        buf.append(String.format("Load test, %s vs %s threads: %.1f vs %.1f requests/s (%+.1f%%)%n",
+                labelA, labelB, a.throughput(), b.throughput(), change(a.throughput(), b.throughput())));
+        buf.append(String.format("%-22s %12s %12s %8s %12s %12s %8s%n",
+                "Endpoint", labelA + " req/s", labelB + " req/s", "", labelA + " p99", labelB + " p99", ""));
+        a.endpoints().forEach((label, ra) -> {
+            final EndpointResult rb = b.endpoints().get(label);
+            if (rb != null) {
+                buf.append(String.format("%-22s %12.1f %12.1f %+7.1f%% %12.2f %12.2f %+7.1f%%%n",
+                        label, ra.throughput(), rb.throughput(), change(ra.throughput(), rb.throughput()),
+                        ra.p99Ms(), rb.p99Ms(), change(ra.p99Ms(), rb.p99Ms())));
+            }
+        });
+        return buf.toString();
+    }
+
+    private static double change(double from, double to) {
+        return (from == 0.0) ? 0.0 : (to - from) / from * 100;
+    }
+}
@@ -0,0 +1,57 @@
+package tacos.load;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+// ---
+// The settings of a load test run, from system properties "tacos.load.*". The "loadTest"
+// Gradle task passes "-Pload.<name>=<value>" on as "tacos.load.<name>", e.g.
+// "./gradlew loadTest -Pload.users=64 -Pload.duration-seconds=120".
+//
+// users                number of simulated users (sessions), each on its own thread
+// warmup-seconds       flows run before measuring, for JIT, pools and caches
+// duration-seconds     length of the measurement
+// max-error-rate       highest acceptable fraction of failed requests, per endpoint
+// min-throughput       lowest acceptable requests per second over all endpoints (0: no gate)
+// max-p99-ms           highest acceptable 99th percentile latency, per endpoint (0: no gate)
+// report-dir           where the JSON reports go, "results-<threads>.json" (see DesignToOrderLoadTest)
+// baseline-dir         where the JSON reports to compare with are, if they exist
+// tolerance            acceptable drop of throughput against the baseline (fraction)
+// latency-tolerance    acceptable rise of p99 latencies against the baseline (fraction)
+// ---
+
+record LoadSettings(
+        int users,
+        @NotNull Duration warmup,
+        @NotNull Duration duration,
+        double maxErrorRate,
+        double minThroughput,
+        double maxP99Millis,
+        @NotNull Path reportDir,
+        @NotNull Path baselineDir,
+        double tolerance,
+        double latencyTolerance) {
+
+    private final static String prefix = "tacos.load.";
+
+    static @NotNull LoadSettings fromSystemProperties() {
+        return new LoadSettings(
+                Integer.parseInt(property("users", "16")),
+                Duration.ofSeconds(Long.parseLong(property("warmup-seconds", "5"))),
+                Duration.ofSeconds(Long.parseLong(property("duration-seconds", "30"))),
+                Double.parseDouble(property("max-error-rate", "0")),
+                Double.parseDouble(property("min-throughput", "0")),
+                Double.parseDouble(property("max-p99-ms", "0")),
+                Path.of(property("report-dir", "build/reports/loadTest")),
+                Path.of(property("baseline-dir", "src/loadTest/baseline")),
+                Double.parseDouble(property("tolerance", "0.10")),
+                Double.parseDouble(property("latency-tolerance", "0.50")));
+    }
+
+    private static @NotNull String property(@NotNull String name, @NotNull String defaultValue) {
+        final String value = System.getProperty(prefix + name);
+        return (value == null || value.isBlank()) ? defaultValue : value.trim();
+    }
+}
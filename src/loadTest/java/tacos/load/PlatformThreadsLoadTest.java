@@ -0,0 +1,13 @@
+package tacos.load;
+
+import org.jetbrains.annotations.NotNull;
+
+// The load test with Tomcat's pool of platform threads (the default)
+
+public class PlatformThreadsLoadTest extends DesignToOrderLoadTest {
+
+    @Override
+    protected @NotNull String threads() {
+        return "platform";
+    }
+}
@@ -0,0 +1,80 @@
+package tacos.load;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// ---
+// The latencies and errors of one endpoint, as seen by one simulated user (so no locking),
+// merged over all users at the end of the run. Latencies are kept in full (8 bytes per
+// request), which makes the percentiles exact.
+//
+// An error is an unexpected status or an exception; the errors are counted by status or
+// exception class, to show in the report.
+// ---
+
+final class Samples {
+
+    private long[] latencies = new long[1024];
+
+    private int count;
+
+    private int errors;
+
+    private final Map<String, Integer> errorsByCause = new TreeMap<>();
+
+    void recordSuccess(long nanos) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = nanos;
+    }
+
+    void recordError(@NotNull String cause) {
+        errors++;
+        errorsByCause.merge(cause, 1, Integer::sum);
+    }
+
+    int getCount() {
+        return count;
+    }
+
+    int getErrors() {
+        return errors;
+    }
+
+    @NotNull Map<String, Integer> getErrorsByCause() {
+        return errorsByCause;
+    }
+
+    // ---
+    // All samples in one instance, with the latencies sorted for percentile().
+    // ---
+
+    static @NotNull Samples merge(@NotNull List<Samples> all) {
+        final Samples res = new Samples();
+        res.latencies = new long[Math.max(1, all.stream().mapToInt(Samples::getCount).sum())];
+        for (Samples samples : all) {
+            System.arraycopy(samples.latencies, 0, res.latencies, res.count, samples.count);
+            res.count += samples.count;
+            res.errors += samples.errors;
+            samples.errorsByCause.forEach((cause, n) -> res.errorsByCause.merge(cause, n, Integer::sum));
+        }
+        Arrays.sort(res.latencies, 0, res.count);
+        return res;
+    }
+
+    // The latency in nanoseconds below which the fraction "p" of the successful requests
+    // fall (nearest rank); 0 if there were none. Only for merged samples.
+
+    long percentile(double p) {
+        if (count == 0) {
+            return 0;
+        }
+        final int rank = (int) Math.ceil(p * count);
+        return latencies[Math.min(count, Math.max(1, rank)) - 1];
+    }
+}
@@ -0,0 +1,195 @@
+package tacos.load;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.web.util.HtmlUtils;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// ---
+// One simulated user: an HTTP client with its own cookies (hence its own session) going
+// through the design-to-order flow again and again, as a browser would:
+//
+//   GET /design, POST /design (a taco), GET /propose, POST /propose (the proposed taco,
+//   as found in the page), GET /orders/current, POST /orders (the pre-filled form)
+//
+// A failed request ends the current round, the next one starts over in the same session.
+// Only the requests started within the measurement window are recorded.
+// ---
+
+final class SessionFlow {
+
+    private final static Duration requestTimeout = Duration.ofSeconds(10);
+
+    private final static Pattern inputTag = Pattern.compile("<input\\b[^>]*>");
+
+    private final static Pattern valueAttribute = Pattern.compile("\\bvalue=\"([^\"]*)\"");
+
+    // Valid tacos for POST /design: one wrap, otherwise anything
+
+    private final static String[][] designedTacos = {
+            {"FLTO", "GRBF", "CHED", "TMTO", "SLSA"},
+            {"COTO", "CARN", "JACK", "LETC", "SRCR"},
+            {"FLTO", "CARN", "CHED", "JACK", "TMTO", "LETC", "SLSA"},
+            {"COTO", "GRBF", "SRCR"}
+    };
+
+    private final static List<String[]> orderForm = List.of(
+            new String[]{"deliveryAddress.name", "Load Tester"},
+            new String[]{"deliveryAddress.street", "1 Benchmark Road"},
+            new String[]{"deliveryAddress.city", "Carcosa"},
+            new String[]{"deliveryAddress.state", "Lowbar"},
+            new String[]{"deliveryAddress.zip", "B-7676"},
+            new String[]{"ccInfo.ccNumber", "4772687290188749"},
+            new String[]{"ccInfo.ccExpiration", "12/2080"},
+            new String[]{"ccInfo.ccCVV", "550"});
+
+    private final HttpClient client;
+
+    private final String baseUrl;
+
+    private final Map<Endpoint, Samples> samples = new EnumMap<>(Endpoint.class);
+
+    // the measurement window, in System.nanoTime()
+
+    private final long measureFrom;
+
+    private final long measureTo;
+
+    private int tacoCount;
+
+    SessionFlow(@NotNull String baseUrl, long measureFrom, long measureTo) {
+        this.baseUrl = baseUrl;
+        this.measureFrom = measureFrom;
+        this.measureTo = measureTo;
+        this.client = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(requestTimeout)
+                .build();
+        for (Endpoint endpoint : Endpoint.values()) {
+            samples.put(endpoint, new Samples());
+        }
+    }
+
+    @NotNull Samples getSamples(@NotNull Endpoint endpoint) {
+        return samples.get(endpoint);
+    }
+
+    // ---
+    // One round of the flow.
+    // ---
+
+    void run() throws InterruptedException {
+        if (send(Endpoint.GET_DESIGN, get("/design")) == null) {
+            return;
+        }
+        final String[] designed = designedTacos[tacoCount % designedTacos.length];
+        final List<String[]> taco = new ArrayList<>();
+        taco.add(new String[]{"name", "Load Taco " + (++tacoCount)});
+        for (String id : designed) {
+            taco.add(new String[]{"ingredients", id});
+        }
+        if (send(Endpoint.POST_DESIGN, post("/design", taco)) == null) {
+            return;
+        }
+        final HttpResponse<String> proposal = send(Endpoint.GET_PROPOSE, get("/propose"));
+        if (proposal == null) {
+            return;
+        }
+        if (send(Endpoint.POST_PROPOSE, post("/propose", proposedTaco(proposal.body()))) == null) {
+            return;
+        }
+        if (send(Endpoint.GET_ORDER, get("/orders/current")) == null) {
+            return;
+        }
+        send(Endpoint.POST_ORDER, post("/orders", orderForm));
+    }
+
+    // The form data of the proposed taco: the name field and the checked ingredients
+
+    static @NotNull List<String[]> proposedTaco(@NotNull String page) {
+        final List<String[]> res = new ArrayList<>();
+        final Matcher inputs = inputTag.matcher(page);
+        while (inputs.find()) {
+            final String input = inputs.group();
+            final Matcher value = valueAttribute.matcher(input);
+            if (!value.find()) {
+                continue;
+            }
+            if (input.contains("id=\"taco_name\"")) {
+                res.add(new String[]{"name", HtmlUtils.htmlUnescape(value.group(1))});
+            } else if (input.contains("name=\"ingredients\"") && input.contains("checked")) {
+                res.add(new String[]{"ingredients", HtmlUtils.htmlUnescape(value.group(1))});
+            }
+        }
+        return res;
+    }
+
+    // ---
+    // Sends the request, records the outcome and returns the response, or null if the
+    // request failed.
+    // ---
+
+    private @Nullable HttpResponse<String> send(@NotNull Endpoint endpoint, @NotNull HttpRequest request) throws InterruptedException {
+        final long start = System.nanoTime();
+        final boolean record = start - measureFrom >= 0 && start - measureTo < 0;
+        try {
+            final HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            final long elapsed = System.nanoTime() - start;
+            if (response.statusCode() != endpoint.getExpectedStatus()) {
+                if (record) {
+                    samples.get(endpoint).recordError("status " + response.statusCode());
+                }
+                return null;
+            }
+            if (record) {
+                samples.get(endpoint).recordSuccess(elapsed);
+            }
+            return response;
+        } catch (IOException ex) {
+            if (record) {
+                samples.get(endpoint).recordError(ex.getClass().getSimpleName());
+            }
+            return null;
+        }
+    }
+
+    private @NotNull HttpRequest get(@NotNull String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(requestTimeout)
+                .GET()
+                .build();
+    }
+
+    private @NotNull HttpRequest post(@NotNull String path, @NotNull List<String[]> form) {
+        final StringBuilder body = new StringBuilder();
+        for (String[] field : form) {
+            if (body.length() > 0) {
+                body.append('&');
+            }
+            body.append(URLEncoder.encode(field[0], StandardCharsets.UTF_8))
+                    .append('=')
+                    .append(URLEncoder.encode(field[1], StandardCharsets.UTF_8));
+        }
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+    }
+}
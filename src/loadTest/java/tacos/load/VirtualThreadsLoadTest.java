@@ -0,0 +1,18 @@
+package tacos.load;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.test.context.TestPropertySource;
+
+// The load test with requests and background jobs on virtual threads (see VirtualThreadsConfig);
+// skipped before Java 21
+
+@TestPropertySource(properties = "tacos.threads.virtual=true")
+@EnabledIf("tacos.threads.VirtualThreads#isSupported")
+public class VirtualThreadsLoadTest extends DesignToOrderLoadTest {
+
+    @Override
+    protected @NotNull String threads() {
+        return "virtual";
+    }
+}
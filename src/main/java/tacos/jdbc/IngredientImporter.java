@@ -0,0 +1,153 @@
+package tacos.jdbc;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.stereotype.Component;
+import tacos.model.helpers.Helpers;
+import tacos.model.ingredients.IngredientCatalog;
+import tacos.model.ingredients.IngredientType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// ---
+// Bulk import of (supplier) ingredient catalogs into table "Ingredient".
+//
+// The input is parsed as it is read and handed to IngredientRepository.upsertAll() as a
+// stream, so a large file is never held in memory: only one JDBC batch is. All rows go
+// in one transaction: a bad row (reported with its line or element number) means
+// nothing is imported. Existing ingredients are updated.
+//
+// Rows are checked as plain strings (required fields, known type, and ids and names that
+// fit the columns) and written as IngredientRows. No Ingredient is constructed here: once
+// the import has been committed, the IngredientCatalog is refreshed, once, and that builds
+// the Ingredients. A rejected or rolled-back import thus leaves nothing in memory.
+//
+// CSV: one "id,name,type" per line. The id is what comes before the first comma and the
+// type what comes after the last one, so the name may contain commas. No quoting.
+// Blank lines, lines starting with "#" and a header line "id,name,type" are skipped.
+//
+// JSON: an array of objects {"id": ..., "name": ..., "type": ...}.
+// ---
+
+@Slf4j
+@Component
+public class IngredientImporter {
+
+    private record InputRow(String id, String name, String type) {
+    }
+
+    // The widths of the columns of table "Ingredient" (see schema.sql)
+
+    private final static int maxIdLength = 16;
+
+    private final static int maxNameLength = 64;
+
+    private final IngredientRepository ingredientRepository;
+
+    private final IngredientCatalog ingredientCatalog;
+
+    private final ObjectMapper objectMapper;
+
+    public IngredientImporter(
+            @NotNull IngredientRepository ingredientRepository,
+            @NotNull IngredientCatalog ingredientCatalog,
+            @NotNull ObjectMapper objectMapper) {
+        this.ingredientRepository = ingredientRepository;
+        this.ingredientCatalog = ingredientCatalog;
+        this.objectMapper = objectMapper;
+        log.info(">>> {} created", Helpers.makeLocator(this));
+    }
+
+    // Returns the number of ingredients imported. Throws IllegalArgumentException on bad input.
+
+    public long importCsv(@NotNull InputStream in) throws IOException {
+        final AtomicLong lineNumber = new AtomicLong();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            final Stream<IngredientRow> rows = reader.lines()
+                    .map(line -> parseCsvLine(line, lineNumber.incrementAndGet()))
+                    .filter(row -> row != null)
+                    .map(row -> toRow(row, "line " + lineNumber.get()));
+            return importAll(rows);
+        }
+    }
+
+    // Malformed JSON is reported as IllegalArgumentException, too. While iterating, Jackson
+    // wraps parse errors into RuntimeExceptions.
+
+    public long importJson(@NotNull InputStream in) throws IOException {
+        final AtomicLong elementNumber = new AtomicLong();
+        try (MappingIterator<InputRow> inputRows = objectMapper.readerFor(InputRow.class).readValues(in)) {
+            final Stream<IngredientRow> rows = StreamSupport
+                    .stream(Spliterators.spliteratorUnknownSize(inputRows, Spliterator.ORDERED), false)
+                    .map(row -> toRow(row, "element " + elementNumber.incrementAndGet()));
+            return importAll(rows);
+        } catch (JsonProcessingException ex) {
+            throw badJson(ex, elementNumber.get() + 1);
+        } catch (RuntimeException ex) {
+            if (ex.getCause() instanceof JsonProcessingException cause) {
+                throw badJson(cause, elementNumber.get() + 1);
+            }
+            throw ex;
+        }
+    }
+
+    private static @NotNull IllegalArgumentException badJson(@NotNull JsonProcessingException ex, long elementNumber) {
+        return new IllegalArgumentException("element " + elementNumber + ": " + ex.getOriginalMessage(), ex);
+    }
+
+    private long importAll(@NotNull Stream<IngredientRow> rows) {
+        final long count = ingredientRepository.upsertAll(rows);
+        log.info(">>> {} imported {} ingredients, refreshing the catalog", Helpers.makeLocator(this), count);
+        ingredientCatalog.refresh();
+        return count;
+    }
+
+    private static InputRow parseCsvLine(@NotNull String line, long lineNumber) {
+        final String trimmed = line.strip();
+        if (trimmed.isEmpty() || trimmed.startsWith("#") || (lineNumber == 1 && trimmed.equalsIgnoreCase("id,name,type"))) {
+            return null;
+        }
+        final int first = trimmed.indexOf(',');
+        final int last = trimmed.lastIndexOf(',');
+        if (first < 0 || first == last) {
+            throw new IllegalArgumentException("line " + lineNumber + ": expected 'id,name,type' but got '" + trimmed + "'");
+        }
+        return new InputRow(trimmed.substring(0, first), trimmed.substring(first + 1, last), trimmed.substring(last + 1));
+    }
+
+    // The id is normalized as IngredientId does it (trimmed, uppercase), but not interned.
+
+    private static @NotNull IngredientRow toRow(@NotNull InputRow row, @NotNull String where) {
+        if (row.id() == null || row.id().isBlank() || row.name() == null || row.name().isBlank() || row.type() == null) {
+            throw new IllegalArgumentException(where + ": id, name and type are all required");
+        }
+        final IngredientType type;
+        try {
+            type = IngredientType.valueOfCasingIndifferent(row.type().strip());
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException(where + ": unknown ingredient type '" + row.type() + "'");
+        }
+        final String id = row.id().strip().toUpperCase(Locale.ROOT);
+        if (id.length() > maxIdLength) {
+            throw new IllegalArgumentException(where + ": id is longer than " + maxIdLength + " characters");
+        }
+        final String name = row.name().strip();
+        if (name.length() > maxNameLength) {
+            throw new IllegalArgumentException(where + ": name is longer than " + maxNameLength + " characters");
+        }
+        return new IngredientRow(id, name, type);
+    }
+}
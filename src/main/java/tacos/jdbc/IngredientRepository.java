@@ -3,8 +3,11 @@ package tacos.jdbc;
 import tacos.model.ingredients.Ingredient;
 import tacos.model.ingredients.IngredientId;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 // ---
 // Code from Chapter 3.1.2 of "Spring in Action" 6th edition,
@@ -18,8 +21,28 @@ public interface IngredientRepository {
 
     List<Ingredient> findAll();
 
+    // For bulk work on the whole table, without holding it in memory.
+    // The stream holds on to a database cursor (and connection) and must be closed:
+    // try (Stream<Ingredient> stream = repository.streamAll()) { ... }
+
+    Stream<Ingredient> streamAll();
+
+    // Same, but pushing the ingredients to "action" one by one. Nothing to close.
+
+    void forEach(Consumer<Ingredient> action);
+
     Optional<Ingredient> findById(IngredientId id);
 
     Ingredient save(Ingredient ingredient);
 
+    // Insert all, in one transaction. Fails (and inserts nothing) if any id already exists.
+
+    List<Ingredient> saveAll(Collection<Ingredient> ingredients);
+
+    // Insert or update all, in one transaction. The stream is consumed as it goes, so it may
+    // come straight from a file. Returns the number of rows written. Takes rows rather than
+    // Ingredients, so that nothing is constructed for rows that are never committed.
+
+    long upsertAll(Stream<IngredientRow> rows);
+
 }
\ No newline at end of file
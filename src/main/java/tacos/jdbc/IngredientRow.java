@@ -0,0 +1,19 @@
+package tacos.jdbc;
+
+import org.jetbrains.annotations.NotNull;
+import tacos.model.ingredients.Ingredient;
+import tacos.model.ingredients.IngredientType;
+
+// ---
+// A row of table "Ingredient" as plain values, for writing. Unlike an Ingredient, a row
+// doesn't get an ordinal or an interned IngredientId (see IngredientOrdinals), so rows
+// that are never committed (a rejected or rolled-back import) leave nothing behind.
+// The id is expected to be normalized already (trimmed, uppercase).
+// ---
+
+public record IngredientRow(@NotNull String id, @NotNull String name, @NotNull IngredientType type) {
+
+    public static @NotNull IngredientRow of(@NotNull Ingredient ingredient) {
+        return new IngredientRow(ingredient.getId().getRaw(), ingredient.getName(), ingredient.getType());
+    }
+}
@@ -1,8 +1,15 @@
 package tacos.jdbc;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import tacos.model.helpers.Helpers;
 import tacos.model.ingredients.Ingredient;
 import tacos.model.ingredients.IngredientId;
 import tacos.model.ingredients.IngredientType;
@@ -10,19 +17,76 @@ import tacos.model.ingredients.IngredientType;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 // ---
 // Code from Chapter 3.1.2 of "Spring in Action" 6th edition,
 // slightly modified to use IngredientId id instead of String id.
+//
+// streamAll() and forEach() read through a forward-only cursor, fetching
+// "tacos.jdbc.fetch-size" rows per round trip, so that memory use doesn't depend
+// on the size of the table. They use their own JdbcTemplate, as the fetch size is
+// a property of the template and the shared one should not be changed.
+//
+// saveAll() and upsertAll() write in JDBC batches of "tacos.jdbc.batch-size" rows,
+// all batches in one transaction. The upsert uses H2's "merge ... key (id)".
+//
+// Every operation is timed (see QueryTimers). For streamAll(), the time runs until the
+// stream is closed, as the rows are only read while the stream is consumed.
 // ---
 
+@Slf4j
 @Repository
 public class JdbcIngredientRepository implements IngredientRepository {
 
+    private final static String selectAllSql = "select id, name, type from Ingredient";
+
+    private final static String insertSql = "insert into Ingredient (id, name, type) values (?, ?, ?)";
+
+    private final static String upsertSql = "merge into Ingredient (id, name, type) key (id) values (?, ?, ?)";
+
     private final @NotNull JdbcTemplate jdbcTemplate;
 
-    public JdbcIngredientRepository(@NotNull JdbcTemplate jdbcTemplate) {
+    private final @NotNull JdbcTemplate streamingJdbcTemplate;
+
+    private final int batchSize;
+
+    private final @NotNull MeterRegistry meterRegistry;
+
+    private final @NotNull Timer findAllTimer;
+
+    private final @NotNull Timer streamAllTimer;
+
+    private final @NotNull Timer forEachTimer;
+
+    private final @NotNull Timer findByIdTimer;
+
+    private final @NotNull Timer saveTimer;
+
+    private final @NotNull Timer saveAllTimer;
+
+    private final @NotNull Timer upsertAllTimer;
+
+    public JdbcIngredientRepository(
+            @NotNull JdbcTemplate jdbcTemplate,
+            @NotNull MeterRegistry meterRegistry,
+            @Value("${tacos.jdbc.fetch-size:500}") int fetchSize,
+            @Value("${tacos.jdbc.batch-size:500}") int batchSize) {
         this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.meterRegistry = meterRegistry;
+        this.findAllTimer = QueryTimers.timer(meterRegistry, "ingredient", "findAll");
+        this.streamAllTimer = QueryTimers.timer(meterRegistry, "ingredient", "streamAll");
+        this.forEachTimer = QueryTimers.timer(meterRegistry, "ingredient", "forEach");
+        this.findByIdTimer = QueryTimers.timer(meterRegistry, "ingredient", "findById");
+        this.saveTimer = QueryTimers.timer(meterRegistry, "ingredient", "save");
+        this.saveAllTimer = QueryTimers.timer(meterRegistry, "ingredient", "saveAll");
+        this.upsertAllTimer = QueryTimers.timer(meterRegistry, "ingredient", "upsertAll");
+        this.streamingJdbcTemplate = new JdbcTemplate(Objects.requireNonNull(jdbcTemplate.getDataSource()));
+        this.streamingJdbcTemplate.setExceptionTranslator(jdbcTemplate.getExceptionTranslator());
+        this.streamingJdbcTemplate.setFetchSize(fetchSize);
+        log.info(">>> {} created with fetch size {} and batch size {}", Helpers.makeLocator(this), fetchSize, batchSize);
     }
 
     // "Spring in Action" returns Iterable<Ingredient> here, but why?
@@ -30,28 +94,75 @@ public class JdbcIngredientRepository implements IngredientRepository {
 
     @Override
     public List<Ingredient> findAll() {
-        final String sql = "select id, name, type from Ingredient";
-        return jdbcTemplate.query(sql,JdbcIngredientRepository::mapRowToIngredient);
+        return findAllTimer.record(() -> jdbcTemplate.query(selectAllSql,JdbcIngredientRepository::mapRowToIngredient));
+    }
+
+    @Override
+    public Stream<Ingredient> streamAll() {
+        final Timer.Sample sample = Timer.start(meterRegistry);
+        return streamingJdbcTemplate.queryForStream(selectAllSql, JdbcIngredientRepository::mapRowToIngredient)
+                .onClose(() -> sample.stop(streamAllTimer));
+    }
+
+    @Override
+    public void forEach(@NotNull Consumer<Ingredient> action) {
+        forEachTimer.record(() ->
+                streamingJdbcTemplate.query(selectAllSql, (RowCallbackHandler) row -> action.accept(mapRowToIngredient(row, 0))));
     }
 
     @Override
     public Optional<Ingredient> findById(@NotNull IngredientId id) {
         final String sql = "select id, name, type from Ingredient where id=?";
-        final @NotNull List<Ingredient> results = jdbcTemplate.query(sql,JdbcIngredientRepository::mapRowToIngredient,id.getRaw());
+        final @NotNull List<Ingredient> results = findByIdTimer.record(() ->
+                jdbcTemplate.query(sql,JdbcIngredientRepository::mapRowToIngredient,id.getRaw()));
         return Optional.ofNullable(results.isEmpty() ? null : results.get(0));
     }
 
     @Override
     public Ingredient save(@NotNull Ingredient ingredient) {
-        final String sql = "insert into Ingredient (id, name, type) values (?, ?, ?)";
-        jdbcTemplate.update(
-                sql,
+        saveTimer.record(() -> jdbcTemplate.update(
+                insertSql,
                 ingredient.getId().getRaw(),
                 ingredient.getName(),
-                ingredient.getType().toString());
+                ingredient.getType().toString()));
         return ingredient;
     }
 
+    @Override
+    @Transactional
+    public List<Ingredient> saveAll(@NotNull Collection<Ingredient> ingredients) {
+        saveAllTimer.record(() -> writeInBatches(insertSql, ingredients.stream().map(IngredientRow::of)));
+        return List.copyOf(ingredients);
+    }
+
+    @Override
+    @Transactional
+    public long upsertAll(@NotNull Stream<IngredientRow> rows) {
+        return upsertAllTimer.record(() -> writeInBatches(upsertSql, rows));
+    }
+
+    // Only "batchSize" rows are held at any time
+
+    private long writeInBatches(@NotNull String sql, @NotNull Stream<IngredientRow> rows) {
+        final List<IngredientRow> batch = new ArrayList<>(batchSize);
+        long count = 0;
+        final Iterator<IngredientRow> iter = rows.iterator();
+        while (iter.hasNext()) {
+            batch.add(iter.next());
+            if (batch.size() == batchSize || !iter.hasNext()) {
+                jdbcTemplate.batchUpdate(sql, batch, batch.size(), (ps, row) -> {
+                    ps.setString(1, row.id());
+                    ps.setString(2, row.name());
+                    ps.setString(3, row.type().toString());
+                });
+                count += batch.size();
+                batch.clear();
+            }
+        }
+        log.debug(">>> {} wrote {} ingredients", Helpers.makeLocator(this), count);
+        return count;
+    }
+
     // ---
     // Interpreted as RowMapper<Ingredient> to transform a row into an Ingredient instance
     // ---
@@ -60,7 +171,7 @@ public class JdbcIngredientRepository implements IngredientRepository {
         final String rawType = row.getString("type");
         final String rawId = row.getString("id");
         final IngredientType type = IngredientType.valueOfCasingIndifferent(rawType); // no need to fix casing
-        final IngredientId id = new IngredientId(rawId); // no need to fix casing
+        final IngredientId id = IngredientId.of(rawId); // no need to fix casing
         final String name = row.getString("name");
         return new Ingredient(id,name,type);
     }
@@ -0,0 +1,192 @@
+package tacos.jdbc;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import tacos.model.helpers.Helpers;
+import tacos.model.ingredients.Ingredient;
+import tacos.model.taco.Address;
+import tacos.model.taco.CreditCardInfo;
+import tacos.model.taco.Taco;
+import tacos.model.taco.TacoOrder;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+// ---
+// Based on Chapter 3.1.4 of "Spring in Action" 6th edition, which inserts the order, then
+// each taco, then each ingredient reference with its own statement. Here, there is one
+// JDBC batch per table instead: all the orders, then all their tacos, then all the
+// "Ingredient_Ref" join rows, in a single transaction. The ids generated for the
+// orders and tacos are read back from the batches' generated keys.
+//
+// Spring's JdbcTemplate.batchUpdate() does not return generated keys, so the batches
+// that need them are run through a ConnectionCallback (SQLExceptions are still translated).
+// ---
+
+@Slf4j
+@Repository
+public class JdbcOrderRepository implements OrderRepository {
+
+    private final static String insertOrderSql =
+            "insert into Taco_Order (delivery_name, delivery_street, delivery_city, delivery_state, delivery_zip, "
+                    + "cc_number, cc_expiration, cc_cvv, placed_at) values (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final static String insertTacoSql =
+            "insert into Taco (name, taco_order, taco_order_key, created_at) values (?, ?, ?, ?)";
+
+    private final static String insertIngredientRefSql =
+            "insert into Ingredient_Ref (ingredient, taco, taco_key) values (?, ?, ?)";
+
+    private final static String[] generatedKeyColumns = {"id"};
+
+    private record TacoRow(@NotNull Taco taco, long orderId, int orderKey) {
+    }
+
+    private record IngredientRefRow(@NotNull String ingredientId, long tacoId, int tacoKey) {
+    }
+
+    private final @NotNull JdbcTemplate jdbcTemplate;
+
+    private final @NotNull Timer saveTimer;
+
+    private final @NotNull Timer saveAllTimer;
+
+    public JdbcOrderRepository(@NotNull JdbcTemplate jdbcTemplate, @NotNull MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.saveTimer = QueryTimers.timer(meterRegistry, "order", "save");
+        this.saveAllTimer = QueryTimers.timer(meterRegistry, "order", "saveAll");
+        log.info(">>> {} created", Helpers.makeLocator(this));
+    }
+
+    @Override
+    @Transactional
+    public TacoOrder save(@NotNull TacoOrder order) {
+        saveTimer.record(() -> insertAll(List.of(order)));
+        return order;
+    }
+
+    @Override
+    @Transactional
+    public List<TacoOrder> saveAll(@NotNull List<TacoOrder> orders) {
+        saveAllTimer.record(() -> insertAll(orders));
+        return orders;
+    }
+
+    // Not @Transactional itself: a call from within this class doesn't go through the proxy.
+
+    private void insertAll(@NotNull List<TacoOrder> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        final long[] orderIds = insertOrders(orders);
+        final List<TacoRow> tacoRows = new ArrayList<>();
+        for (int i = 0; i < orders.size(); i++) {
+            final TacoOrder order = orders.get(i);
+            order.setId(orderIds[i]);
+            int orderKey = 0;
+            // by name, so that "taco_order_key" is reproducible
+            for (String name : order.getTacoNames()) {
+                tacoRows.add(new TacoRow(order.getTacos().get(name), orderIds[i], orderKey++));
+            }
+        }
+        final long[] tacoIds = insertTacos(tacoRows);
+        final List<IngredientRefRow> refRows = new ArrayList<>();
+        for (int i = 0; i < tacoRows.size(); i++) {
+            final Taco taco = tacoRows.get(i).taco();
+            taco.setId(tacoIds[i]);
+            int tacoKey = 0;
+            for (Ingredient ingredient : taco.getIngredients()) {
+                refRows.add(new IngredientRefRow(ingredient.getId().getRaw(), tacoIds[i], tacoKey++));
+            }
+        }
+        insertIngredientRefs(refRows);
+        log.debug(">>> {} saved {} orders with {} tacos and {} ingredient references",
+                Helpers.makeLocator(this), orders.size(), tacoRows.size(), refRows.size());
+    }
+
+    private @NotNull long[] insertOrders(@NotNull List<TacoOrder> orders) {
+        return batchInsertReturningIds(insertOrderSql, orders, (ps, order) -> {
+            if (order.getPlacedAt() == null) {
+                order.setPlacedAt(new Date());
+            }
+            final Address address = order.getDeliveryAddress();
+            final CreditCardInfo ccInfo = order.getCcInfo();
+            ps.setString(1, address.getName());
+            ps.setString(2, address.getStreet());
+            ps.setString(3, address.getCity());
+            ps.setString(4, address.getState());
+            ps.setString(5, address.getZip());
+            ps.setString(6, ccInfo.getCcNumber());
+            ps.setString(7, ccInfo.getCcExpiration());
+            ps.setString(8, ccInfo.getCcCVV());
+            ps.setTimestamp(9, new Timestamp(order.getPlacedAt().getTime()));
+        });
+    }
+
+    private @NotNull long[] insertTacos(@NotNull List<TacoRow> rows) {
+        return batchInsertReturningIds(insertTacoSql, rows, (ps, row) -> {
+            final Taco taco = row.taco();
+            ps.setString(1, taco.getName());
+            ps.setLong(2, row.orderId());
+            ps.setLong(3, row.orderKey());
+            ps.setTimestamp(4, new Timestamp(taco.getCreatedAt().getTime()));
+        });
+    }
+
+    private void insertIngredientRefs(@NotNull List<IngredientRefRow> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(insertIngredientRefSql, rows, rows.size(), (ps, row) -> {
+                ps.setString(1, row.ingredientId());
+                ps.setLong(2, row.tacoId());
+                ps.setLong(3, row.tacoKey());
+            });
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowSetter<T> {
+        void setValues(@NotNull PreparedStatement ps, @NotNull T item) throws SQLException;
+    }
+
+    // Run one batch of inserts and return the generated ids, in the order of "items".
+
+    private <T> @NotNull long[] batchInsertReturningIds(@NotNull String sql, @NotNull List<T> items, @NotNull RowSetter<T> setter) {
+        final long[] res = new long[items.size()];
+        if (items.isEmpty()) {
+            return res;
+        }
+        final Integer count = jdbcTemplate.execute((ConnectionCallback<Integer>) con -> {
+            try (PreparedStatement ps = con.prepareStatement(sql, generatedKeyColumns)) {
+                for (T item : items) {
+                    setter.setValues(ps, item);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                int i = 0;
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    while (keys.next() && i < res.length) {
+                        res[i++] = keys.getLong(1);
+                    }
+                }
+                return i;
+            }
+        });
+        if (count == null || count != items.size()) {
+            throw new DataRetrievalFailureException("Expected " + items.size() + " generated keys but got " + count);
+        }
+        return res;
+    }
+
+}
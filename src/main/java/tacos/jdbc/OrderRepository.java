@@ -0,0 +1,21 @@
+package tacos.jdbc;
+
+import tacos.model.taco.TacoOrder;
+
+import java.util.List;
+
+// ---
+// Based on Chapter 3.1.4 of "Spring in Action" 6th edition.
+// Saving an order also saves its tacos and their ingredient references.
+// The generated ids are set on the TacoOrder and Taco instances.
+// ---
+
+public interface OrderRepository {
+
+    TacoOrder save(TacoOrder order);
+
+    // Several orders in one go (and one transaction)
+
+    List<TacoOrder> saveAll(List<TacoOrder> orders);
+
+}
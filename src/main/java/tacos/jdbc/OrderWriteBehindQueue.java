@@ -0,0 +1,255 @@
+package tacos.jdbc;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import tacos.model.helpers.Helpers;
+import tacos.model.taco.TacoOrder;
+import tacos.threads.VirtualThreads;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+// ---
+// Write-behind for orders. The OrderController hands a copy of a validated TacoOrder to
+// "offer()" and redirects right away, instead of holding the servlet thread while the
+// database commits. A single writer thread drains the queue and saves what it finds in one go
+// through OrderRepository.saveAll(), i.e. one transaction and one commit per batch
+// ("group commit"). Under load, batches get bigger and commits fewer.
+//
+// The queue is bounded. If it is full (the database can't keep up), "offer()" waits
+// a little and then returns false, so that the caller can push back on the client
+// instead of the application running out of memory.
+//
+// On shutdown, the queue stops accepting orders and the writer saves what is left.
+// Orders still in the queue are lost if the JVM dies: that's the price of write-behind.
+//
+// The client has already been told that the order is taken, so the writer tries hard: if a
+// batch fails, its orders are saved one by one, each retried a few times. An order that the
+// database refuses for a constraint (DataIntegrityViolationException) is not retried, as it
+// would fail again: this is a bug, validation (see TacoOrder) is meant to let only orders
+// through that fit the schema. It is counted and logged apart from the other failures.
+//
+// Meters: "tacos.orders.queue.depth" (gauge), "tacos.orders.batch.size" (summary),
+// "tacos.orders.commit" (timer for saveAll), "tacos.orders.rejected" (full queue),
+// "tacos.orders.invalid" (refused by the database constraints) and "tacos.orders.failed"
+// (could not be saved after retries).
+// ---
+
+@Slf4j
+@Component
+public class OrderWriteBehindQueue implements SmartLifecycle {
+
+    private final OrderRepository orderRepository;
+
+    private final BlockingQueue<TacoOrder> queue;
+
+    private final int maxBatchSize;
+
+    private final long offerTimeoutMs;
+
+    // Platform or virtual writer thread, see VirtualThreadsConfig
+
+    private final ThreadFactory threadFactory;
+
+    private final DistributionSummary batchSize;
+
+    private final Timer commitTimer;
+
+    private final Counter rejected;
+
+    private final Counter invalid;
+
+    private final Counter failed;
+
+    // Attempts per order once its batch has failed, with a growing pause in between
+
+    private final static int maxAttempts = 3;
+
+    private final static long retryPauseMs = 100;
+
+    private volatile boolean running;
+
+    private Thread writer;
+
+    public OrderWriteBehindQueue(
+            @NotNull OrderRepository orderRepository,
+            @NotNull MeterRegistry registry,
+            @Value("${tacos.orders.queue-capacity:1024}") int capacity,
+            @Value("${tacos.orders.max-batch-size:64}") int maxBatchSize,
+            @Value("${tacos.orders.offer-timeout-ms:100}") long offerTimeoutMs,
+            @Value("${tacos.threads.virtual:false}") boolean virtualThreads) {
+        this.orderRepository = orderRepository;
+        this.threadFactory = VirtualThreads.factory("order-writer-", virtualThreads);
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.maxBatchSize = maxBatchSize;
+        this.offerTimeoutMs = offerTimeoutMs;
+        Gauge.builder("tacos.orders.queue.depth", queue, BlockingQueue::size)
+                .description("Orders waiting to be saved")
+                .register(registry);
+        this.batchSize = DistributionSummary.builder("tacos.orders.batch.size")
+                .description("Orders saved per commit")
+                .register(registry);
+        this.commitTimer = Timer.builder("tacos.orders.commit")
+                .description("Time to save and commit one batch of orders")
+                .register(registry);
+        this.rejected = Counter.builder("tacos.orders.rejected")
+                .description("Orders refused because the queue was full")
+                .register(registry);
+        this.invalid = Counter.builder("tacos.orders.invalid")
+                .description("Orders refused by the database constraints, not retried")
+                .register(registry);
+        this.failed = Counter.builder("tacos.orders.failed")
+                .description("Orders that could not be saved after retries")
+                .register(registry);
+        log.info(">>> {} created with capacity {} and max batch size {}", Helpers.makeLocator(this), capacity, maxBatchSize);
+    }
+
+    // Hand over an order. After this returns true, the caller must not touch the order anymore.
+    // Returns false if the queue stayed full (or is shut down), or if the calling thread was
+    // interrupted while waiting (its interrupt flag is set again): the order has not been taken.
+
+    public boolean offer(@NotNull TacoOrder order) {
+        if (!running) {
+            return false;
+        }
+        if (order.getPlacedAt() == null) {
+            order.setPlacedAt(new Date()); // the time of ordering, not of writing
+        }
+        final boolean res;
+        try {
+            res = queue.offer(order, offerTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        if (!res) {
+            rejected.increment();
+            log.warn(">>> {} queue is full, order refused", Helpers.makeLocator(this));
+        }
+        return res;
+    }
+
+    public int getDepth() {
+        return queue.size();
+    }
+
+    // ---
+    // The writer thread
+    // ---
+
+    private void runWriter() {
+        final List<TacoOrder> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                final TacoOrder first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                write(batch);
+            } catch (InterruptedException ex) {
+                // Not expected (stop() doesn't interrupt). Carry on until the queue is empty.
+                log.warn(">>> {} writer interrupted, {} orders in queue", Helpers.makeLocator(this), queue.size());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(@NotNull List<TacoOrder> batch) {
+        batchSize.record(batch.size());
+        try {
+            commitTimer.record(() -> orderRepository.saveAll(batch));
+        } catch (RuntimeException ex) {
+            // One bad order should not lose the others: retry one by one
+            log.warn(">>> {} batch of {} orders failed, retrying one by one", Helpers.makeLocator(this), batch.size(), ex);
+            for (TacoOrder order : batch) {
+                saveWithRetries(order);
+            }
+        }
+    }
+
+    private void saveWithRetries(@NotNull TacoOrder order) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                orderRepository.save(order);
+                return;
+            } catch (DataIntegrityViolationException ex) {
+                invalid.increment();
+                log.error(">>> {} order placed at {} does not fit the database, dropped",
+                        Helpers.makeLocator(this), order.getPlacedAt(), ex);
+                return;
+            } catch (RuntimeException ex) {
+                if (attempt == maxAttempts) {
+                    failed.increment();
+                    log.error(">>> {} could not save order placed at {} after {} attempts",
+                            Helpers.makeLocator(this), order.getPlacedAt(), attempt, ex);
+                    return;
+                }
+                log.warn(">>> {} saving order placed at {} failed, attempt {} of {}",
+                        Helpers.makeLocator(this), order.getPlacedAt(), attempt, maxAttempts, ex);
+                try {
+                    Thread.sleep(retryPauseMs * attempt);
+                } catch (InterruptedException ex2) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    // ---
+    // SmartLifecycle. The phase is below that of the web server, so the writer is started before
+    // the web server accepts requests and stopped after it has stopped accepting them.
+    // ---
+
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!running) {
+            running = true;
+            writer = threadFactory.newThread(this::runWriter);
+            writer.start();
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (running) {
+            running = false;
+            try {
+                writer.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            if (writer.isAlive()) {
+                log.warn(">>> {} writer did not finish, {} orders not saved", Helpers.makeLocator(this), queue.size());
+            }
+            writer = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+}
@@ -3,6 +3,11 @@ package tacos.model.helpers;
 import org.jetbrains.annotations.NotNull;
 import tacos.model.taco.Taco;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -12,7 +17,8 @@ public abstract class Helpers {
     public final static int usualIndentCount = 3;
 
     // Make a String to identify a given object. The string will be inserted into logging messages
-    // Object may be null.
+    // Object may be null. Not free (identityHashCode may inflate the object header), so callers
+    // on request paths only call it if the message is actually logged.
 
     public static String makeLocator(Object obj) {
         String res;
@@ -20,7 +26,8 @@ public abstract class Helpers {
             res = "(null)";
         }
         else {
-            res = String.format("%s[0x%xd]", obj.getClass().getName(), System.identityHashCode(obj));
+            // same as String.format("%s[0x%xd]", ...), without parsing a format string
+            res = obj.getClass().getName() + "[0x" + Integer.toHexString(System.identityHashCode(obj)) + "d]";
             // FIXME temporary Taco special
             if (obj instanceof Taco) {
                 res += " named '" + ((Taco) obj).getName() + "'";
@@ -55,4 +62,32 @@ public abstract class Helpers {
     public static boolean notEndsInNewline(@NotNull StringBuilder x) {
         return x.isEmpty() || !"\n".equals(x.substring(x.length() - 1));
     }
+
+    // A string that may be null, for the Externalizable session objects: the length of its
+    // UTF-8 encoding as an int (-1 for null), then the bytes. Unlike DataOutput.writeUTF(),
+    // there is no limit of 65535 bytes, which matters as form input is bound into the
+    // TacoOrder in the session before it is validated.
+
+    public static void writeNullableString(@NotNull DataOutput out, String x) throws IOException {
+        if (x == null) {
+            out.writeInt(-1);
+        } else {
+            final byte[] bytes = x.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    public static String readNullableString(@NotNull DataInput in) throws IOException {
+        final int length = in.readInt();
+        if (length == -1) {
+            return null;
+        }
+        if (length < 0) {
+            throw new StreamCorruptedException("Negative string length " + length);
+        }
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
 }
@@ -18,6 +18,11 @@ public class Ingredient implements Comparable<Ingredient> {
     @NotNull String name;
     @NotNull IngredientType type;
 
+    // Dense ordinal, the same for all Ingredients with the same id (see IngredientOrdinals).
+    // Used as bit index in IngredientSet.
+
+    int ordinal;
+
     // Constructor is "package visible" only because all the construction is done in "IngredientRelation".
     // TODO: Made public to pull it from the database
 
@@ -25,6 +30,7 @@ public class Ingredient implements Comparable<Ingredient> {
         this.id = id;
         this.name = name;
         this.type = type;
+        this.ordinal = IngredientOrdinals.ordinalFor(id);
     }
 
     // It is sufficient to compare on "id". Same id? Then it's the "same ingredient".
@@ -0,0 +1,158 @@
+package tacos.model.ingredients;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.context.annotation.Scope;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tacos.model.helpers.Helpers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+// ---
+// The single, shared holder of the current IngredientRelation.
+//
+// The relation is an immutable snapshot. Readers just dereference the current snapshot
+// and never take a lock. A refresh builds a complete new snapshot off to the side and
+// swaps it in atomically ("copy-on-write"). Request processing that already holds the
+// old snapshot continues to work with it undisturbed.
+//
+// Ingredients are never removed by a refresh: ingredients that have disappeared from
+// the source are carried over from the previous snapshot, because a taco-compositing
+// session may still refer to them (see the README). Unchanged ingredients keep their
+// instance, so in-flight Tacos and the new snapshot share the same objects.
+//
+// This is the only place where ingredients are loaded. All components (controllers,
+// converter, validator) inject this bean, so there is only one copy of the catalog
+// in memory, and only one query against the source. The initial load is lazy: it
+// happens on first use, not at construction time.
+// ---
+
+@Slf4j
+@Component // To be scanned by Spring
+@Scope("singleton") // In scope "singleton": create only one
+public class IngredientCatalog {
+
+    private final @NotNull IngredientsSource ingredientsSource;
+
+    // Holds null until the first get()
+
+    private final AtomicReference<IngredientRelation> current = new AtomicReference<>();
+
+    // Serializes the queries against the source (initial load and refreshes). A lock rather
+    // than "synchronized": a virtual thread waiting for the database inside a monitor would
+    // pin its carrier thread (see VirtualThreadsConfig).
+
+    private final ReentrantLock sourceLock = new ReentrantLock();
+
+    // Constructor called by Spring at startup time. Nothing is loaded yet.
+
+    public IngredientCatalog(@NotNull IngredientsSource ingredientsSource) {
+        this.ingredientsSource = ingredientsSource;
+        log.info(">>> {} created with ingredientsSource {}",
+                Helpers.makeLocator(this),
+                Helpers.makeLocator(ingredientsSource));
+    }
+
+    // The current snapshot. Lock-free. Callers that need a consistent view over
+    // several queries should call this once and keep the result for the duration
+    // of the request.
+
+    public @NotNull IngredientRelation get() {
+        final IngredientRelation res = current.get();
+        return (res != null) ? res : loadInitial();
+    }
+
+    // Memoized initial load. Only the very first callers may end up here;
+    // they are serialized so that the source is queried exactly once.
+
+    private @NotNull IngredientRelation loadInitial() {
+        sourceLock.lock();
+        try {
+            IngredientRelation res = current.get();
+            if (res == null) {
+                res = ingredientsSource.refresh();
+                current.set(res);
+                log.info("Ingredient catalog loaded: {} ingredients", res.size());
+            }
+            return res;
+        } finally {
+            sourceLock.unlock();
+        }
+    }
+
+    // Reload from the source, called periodically in the background.
+    // The period is given in milliseconds by "tacos.catalog.refresh-period-ms".
+    // Only one writer may run at any time; readers are not affected by the lock.
+    // A failing source leaves the current snapshot in place.
+
+    @Scheduled(
+            initialDelayString = "${tacos.catalog.refresh-period-ms:60000}",
+            fixedDelayString = "${tacos.catalog.refresh-period-ms:60000}")
+    public void refresh() {
+        sourceLock.lock();
+        try {
+            refreshLocked();
+        } finally {
+            sourceLock.unlock();
+        }
+    }
+
+    private void refreshLocked() {
+        if (current.get() == null) {
+            log.debug("Ingredient catalog not loaded yet; nothing to refresh");
+            return;
+        }
+        final IngredientRelation fresh;
+        try {
+            fresh = ingredientsSource.refresh();
+        } catch (RuntimeException ex) {
+            log.warn("Refreshing the ingredient catalog failed; keeping the current one", ex);
+            return;
+        }
+        final IngredientRelation old = current.get();
+        final List<Ingredient> merged = merge(old, fresh);
+        if (isUnchanged(old, merged)) {
+            log.debug("Ingredient catalog unchanged ({} ingredients)", old.size());
+        } else {
+            final IngredientRelation next = new IngredientRelation(merged);
+            current.set(next);
+            log.info("Ingredient catalog swapped: {} -> {} ingredients", old.size(), next.size());
+        }
+    }
+
+    // Build the ingredient list of the next snapshot: the fresh ingredients (reusing the
+    // previous instance if it is identical in all fields) plus the ingredients that exist
+    // in the old snapshot only.
+
+    private static @NotNull List<Ingredient> merge(@NotNull IngredientRelation old, @NotNull IngredientRelation fresh) {
+        final List<Ingredient> res = new ArrayList<>(Math.max(old.size(), fresh.size()));
+        fresh.getIngredientStream().forEach(ingredient -> {
+            final Ingredient previous = old.getById(ingredient.getId()).orElse(null);
+            res.add(isSameInAllFields(previous, ingredient) ? previous : ingredient);
+        });
+        old.getIngredientStream()
+                .filter(ingredient -> fresh.getById(ingredient.getId()).isEmpty())
+                .forEach(ingredient -> {
+                    log.warn("Ingredient {} has disappeared from the source; it is retained", ingredient.getId());
+                    res.add(ingredient);
+                });
+        return res;
+    }
+
+    // Ingredient.equals() only compares the id, so compare the other fields, too.
+
+    private static boolean isSameInAllFields(Ingredient a, @NotNull Ingredient b) {
+        return a != null && a.getId().equals(b.getId()) && a.getName().equals(b.getName()) && a.getType() == b.getType();
+    }
+
+    // After merge(), an unchanged catalog consists of exactly the old instances.
+
+    private static boolean isUnchanged(@NotNull IngredientRelation old, @NotNull List<Ingredient> merged) {
+        return old.size() == merged.size()
+                && merged.stream().allMatch(ingredient -> old.getById(ingredient.getId()).orElse(null) == ingredient);
+    }
+}
@@ -2,13 +2,21 @@ package tacos.model.ingredients;
 
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Locale;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 // ---
 // This is wrapper around String, basically giving us a String with a specific type.
 // This helps enormously when writing code and looking for problems (the alternative
 // is to use String directly - and every String looks like s String, leading to various
 // confusions).
+//
+// The ids of catalog ingredients should be obtained with IngredientId.of(), which hands out
+// canonical ("interned", flyweight) instances: there is only one IngredientId for "FLTO",
+// whether it was asked for as "FLTO", "flto" or " Flto ". The constructor creates a fresh
+// instance every time; use it for ids that only serve to look something up, in particular
+// ids taken from user input, which would otherwise fill the intern table.
 // ---
 
 public final class IngredientId {
@@ -18,15 +26,81 @@ public final class IngredientId {
 
     private final @NotNull String id;
 
+    // The intern table maps raw forms (as passed to of()) and normalized forms to the
+    // canonical instance. As raw forms may come from user input, the table is bounded;
+    // once full, of() still works but hands out non-canonical instances for new raw forms.
+
+    private final static int internTableLimit = 4096;
+
+    private final static ConcurrentHashMap<String, IngredientId> internTable = new ConcurrentHashMap<>();
+
     // The constructor doesn't care about the casing of the string "id"
-    // and forces it to uppercase.
+    // and forces it to uppercase. An id that is normalized already is taken as is.
 
     public IngredientId(@NotNull String id) {
-        String tid = id.trim().toUpperCase();
+        this.id = isNormalized(id) ? id : normalize(id);
+    }
+
+    // Get the canonical instance for "raw". On a hit in the intern table, this costs
+    // one hash lookup and allocates nothing. Throws on an empty (or blank) string.
+
+    public static @NotNull IngredientId of(@NotNull String raw) {
+        final IngredientId res = internTable.get(raw);
+        return (res != null) ? res : intern(raw);
+    }
+
+    private static @NotNull IngredientId intern(@NotNull String raw) {
+        // fast path: raw is already normalized, no need to build a new string
+        final String normalizedId = isNormalized(raw) ? raw : normalize(raw);
+        IngredientId canonical = internTable.get(normalizedId);
+        if (canonical == null) {
+            canonical = new IngredientId(normalizedId);
+            if (internTable.size() < internTableLimit) {
+                final IngredientId previous = internTable.putIfAbsent(normalizedId, canonical);
+                if (previous != null) {
+                    canonical = previous; // some other thread was faster
+                }
+            }
+        }
+        if (!normalizedId.equals(raw) && internTable.size() < internTableLimit) {
+            internTable.putIfAbsent(raw, canonical);
+        }
+        return canonical;
+    }
+
+    // Trim and uppercase; throws if nothing is left.
+    // Uppercasing does not depend on the default locale, so that "i" always becomes "I".
+
+    private static @NotNull String normalize(@NotNull String id) {
+        final String tid = id.trim().toUpperCase(Locale.ROOT);
         if ("".equals(tid)) {
             throw new IllegalArgumentException("Empty string!");
         }
-        this.id = tid;
+        return tid;
+    }
+
+    // For tests: the number of entries in the intern table
+
+    static int internTableSize() {
+        return internTable.size();
+    }
+
+    // True if "x" is a non-empty sequence of printable ASCII characters without lowercase
+    // letters, i.e. if normalize() would return it unchanged. Anything outside of ASCII is
+    // conservatively considered not normalized. Allocates nothing.
+
+    public static boolean isNormalized(@NotNull CharSequence x) {
+        final int len = x.length();
+        if (len == 0) {
+            return false;
+        }
+        for (int i = 0; i < len; i++) {
+            final char c = x.charAt(i);
+            if (c <= ' ' || c >= 127 || ('a' <= c && c <= 'z')) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
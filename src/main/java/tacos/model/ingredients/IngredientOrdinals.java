@@ -0,0 +1,37 @@
+package tacos.model.ingredients;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// ---
+// Dense ordinals for ingredient ids, used by IngredientSet to represent a set of
+// ingredients as a bitmask.
+//
+// Every IngredientId that is used to construct an Ingredient gets an ordinal: 0, 1, 2...
+// The ordinal of an id never changes during the lifetime of the JVM, in particular not
+// when the IngredientCatalog is swapped, so bitmasks held by tacos in running sessions
+// stay valid. Ordinals are not meant to be persisted (a restart may assign them differently).
+//
+// Ingredients are constructed from the IngredientsSource (a bulk import only writes rows,
+// see IngredientRow), never from user input, so the table grows with the catalog only.
+//
+// Only ids are registered here, never Ingredients: turning an ordinal back into an
+// Ingredient is up to an IngredientRelation snapshot (see IngredientRelation.getByOrdinal()).
+// ---
+
+final class IngredientOrdinals {
+
+    private final static ConcurrentHashMap<IngredientId, Integer> ordinals = new ConcurrentHashMap<>();
+
+    private final static AtomicInteger nextOrdinal = new AtomicInteger();
+
+    private IngredientOrdinals() {
+        // not instantiable
+    }
+
+    static int ordinalFor(@NotNull IngredientId id) {
+        return ordinals.computeIfAbsent(id, x -> nextOrdinal.getAndIncrement());
+    }
+}
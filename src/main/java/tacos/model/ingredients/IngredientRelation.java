@@ -3,46 +3,131 @@ package tacos.model.ingredients;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
-import org.springframework.context.annotation.Scope;
-import org.springframework.stereotype.Component;
 import tacos.model.helpers.Helpers;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 // ---
 // This is a cache for a "relation" (in the database sense) of ingredients.
+// It is an immutable snapshot: everything is computed once at construction time,
+// so that the queries made on every request (by type, types occurring) just hand
+// out precomputed, unmodifiable views and allocate nothing.
+// It is not a Spring bean: the one to use is obtained from the IngredientCatalog.
 // ---
 
 @Slf4j
-@Component // To be scanned by Spring
-@Scope("singleton") // In scope "singleton": create only one
 public class IngredientRelation  {
 
-    // The relation is implemented by a map. Maybe the map should be immutable.
+    // The relation is implemented by an unmodifiable map.
     // The map is filled at construction time either from hardcoded values or
     // from the database. It doesn't change thereafter.
 
-    private final Map<IngredientId, Ingredient> map = new HashMap<>();
+    private final Map<IngredientId, Ingredient> map;
 
-    // Create empty relation to which one can add later with addIngredientToMap().
+    // A second index by id, used by findById(CharSequence) to look up raw strings without
+    // creating an IngredientId. Open addressing with linear probing; the length is a power
+    // of two and the table is at most half full. Slots are hashed with the String.hashCode()
+    // of the (normalized) raw id.
+
+    private final Ingredient[] idTable;
+
+    // Index by type. Only types that actually occur have an entry. The lists are
+    // unmodifiable and sorted by (plaintext) ingredient name.
+
+    private final EnumMap<IngredientType, List<Ingredient>> byType;
+
+    // Index by ordinal (see IngredientOrdinals); null where this relation has no ingredient.
+
+    private final Ingredient[] byOrdinal;
+
+    // The types that occur in the relation, unmodifiable, in the order of the enum.
+
+    private final List<IngredientType> typesOccurring;
+
+    // The lists of "byType", keyed by the lowercase type name ("wrap", "cheese" etc.),
+    // unmodifiable, in the order of the enum. These are the attributes that the
+    // "design" template expects in the model.
+
+    private final Map<String, List<Ingredient>> byTypeName;
+
+    // A hash over all ingredients (id, name, type), equal for relations with the same content,
+    // also across restarts. Used to build ETags of pages that show the catalog (see PageETags).
+
+    private final long fingerprint;
+
+    // Create empty relation.
 
     public IngredientRelation() {
-        log.info(">>> {} created", Helpers.makeLocator(this));
+        this(Collections.emptyList());
     }
 
     // Create relation prefilled with all the ingredients passed.
+    // Throws if two ingredients with the same id are passed.
 
     public IngredientRelation(@NotNull Collection<Ingredient> ingredients) {
-        ingredients.forEach(this::addIngredient);
-        log.info(">>> {} created from list", Helpers.makeLocator(this));
+        this(ingredients.stream());
+    }
+
+    // Same, but consuming a stream (e.g. from a database cursor), so that there is no need to collect
+    // the ingredients into a list first. The caller remains responsible for closing the stream.
+
+    public IngredientRelation(@NotNull Stream<Ingredient> ingredients) {
+        this(collectIntoMap(ingredients));
+    }
+
+    private IngredientRelation(@NotNull HashMap<IngredientId, Ingredient> tmpMap) {
+        this.map = Collections.unmodifiableMap(tmpMap);
+        this.idTable = buildIdTable(tmpMap.values());
+        this.byOrdinal = buildByOrdinal(tmpMap.values());
+        this.byType = new EnumMap<>(IngredientType.class);
+        for (IngredientType type : IngredientType.values()) {
+            final List<Ingredient> forThisType = getIngredientsByType(tmpMap.values(), type);
+            if (!forThisType.isEmpty()) {
+                byType.put(type, List.copyOf(forThisType));
+            }
+        }
+        this.typesOccurring = List.copyOf(byType.keySet()); // EnumMap keys come in enum order
+        final Map<String, List<Ingredient>> tmpByTypeName = new LinkedHashMap<>();
+        byType.forEach((type, list) -> tmpByTypeName.put(type.name().toLowerCase(), list));
+        this.byTypeName = Collections.unmodifiableMap(tmpByTypeName);
+        this.fingerprint = computeFingerprint(byType);
+        log.info(">>> {} created with {} ingredients", Helpers.makeLocator(this), map.size());
+    }
+
+    // The lists of "byType" are sorted, so the order in which ingredients were passed doesn't matter.
+
+    private static long computeFingerprint(@NotNull EnumMap<IngredientType, List<Ingredient>> byType) {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is available in every JVM", ex);
+        }
+        byType.forEach((type, list) -> list.forEach(ingredient -> {
+            final String row = type.name() + '\0' + ingredient.getId().getRaw() + '\0' + ingredient.getName() + '\0';
+            digest.update(row.getBytes(StandardCharsets.UTF_8));
+        }));
+        long res = 0;
+        for (byte b : Arrays.copyOf(digest.digest(), Long.BYTES)) {
+            res = (res << 8) | (b & 0xFF);
+        }
+        return res;
+    }
+
+    private static @NotNull HashMap<IngredientId, Ingredient> collectIntoMap(@NotNull Stream<Ingredient> ingredients) {
+        final HashMap<IngredientId, Ingredient> res = new HashMap<>();
+        ingredients.forEachOrdered(ingredient -> addIngredient(res, ingredient));
+        return res;
     }
 
     // Throws if an ingredient with the same id already exists in the map
-    // Currently "protected" as called only from subclasses.
 
-    protected void addIngredient(@NotNull Ingredient ingredient) {
+    private static void addIngredient(@NotNull Map<IngredientId, Ingredient> map, @NotNull Ingredient ingredient) {
         final var iid = ingredient.getId();
         final var old = map.put(iid, ingredient);
         if (old != null) {
@@ -55,17 +140,116 @@ public class IngredientRelation  {
     }
 
     public @Nullable Optional<Ingredient> getById(@NotNull String id) {
-        return Optional.ofNullable(map.get(new IngredientId(id)));
+        return Optional.ofNullable(findById(id));
     }
 
-    public @NotNull Set<Ingredient> getByType(@NotNull IngredientType type) {
-        return getIngredientStream()
-                .filter(ingr -> ingr.getType() == type)
-                .collect(Collectors.toSet());
+    // Look up an ingredient by its raw id, which is trimmed and uppercased on the fly.
+    // Returns null if there is no such ingredient (also if "id" is blank).
+    // For ASCII input (the normal case) this allocates nothing at all.
+
+    public @Nullable Ingredient findById(@NotNull CharSequence id) {
+        int start = 0;
+        int end = id.length();
+        while (start < end && id.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && id.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (start == end) {
+            return null;
+        }
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            final char c = id.charAt(i);
+            if (c >= 127) {
+                // Uppercasing beyond ASCII is best left to String.toUpperCase(). The input may
+                // be anything a client sent, so it is not interned (see IngredientId).
+                return map.get(new IngredientId(id.toString()));
+            }
+            hash = 31 * hash + asciiUpperCase(c);
+        }
+        final int mask = idTable.length - 1;
+        for (int slot = spread(hash) & mask; ; slot = (slot + 1) & mask) {
+            final Ingredient candidate = idTable[slot];
+            if (candidate == null) {
+                return null;
+            }
+            final String raw = candidate.getId().getRaw();
+            if (raw.hashCode() == hash && matches(raw, id, start, end)) {
+                return candidate;
+            }
+        }
     }
 
-    public @NotNull SortedSet<Ingredient> getByTypeSorted(@NotNull IngredientType type) {
-        return new TreeSet<>(getByType(type));
+    // The ingredient with the given ordinal, if it is in this relation, else null. Allocates nothing.
+
+    public @Nullable Ingredient getByOrdinal(int ordinal) {
+        return (0 <= ordinal && ordinal < byOrdinal.length) ? byOrdinal[ordinal] : null;
+    }
+
+    private static @NotNull Ingredient[] buildByOrdinal(@NotNull Collection<Ingredient> ingredients) {
+        final int length = ingredients.stream().mapToInt(Ingredient::getOrdinal).max().orElse(-1) + 1;
+        final Ingredient[] res = new Ingredient[length];
+        ingredients.forEach(ingredient -> res[ingredient.getOrdinal()] = ingredient);
+        return res;
+    }
+
+    private static @NotNull Ingredient[] buildIdTable(@NotNull Collection<Ingredient> ingredients) {
+        int length = 2;
+        while (length < 2 * ingredients.size()) {
+            length <<= 1;
+        }
+        final Ingredient[] table = new Ingredient[length];
+        final int mask = length - 1;
+        for (Ingredient ingredient : ingredients) {
+            int slot = spread(ingredient.getId().getRaw().hashCode()) & mask;
+            while (table[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = ingredient;
+        }
+        return table;
+    }
+
+    // Mix the high bits into the low bits, as HashMap does
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static char asciiUpperCase(char c) {
+        return ('a' <= c && c <= 'z') ? (char) (c - ('a' - 'A')) : c;
+    }
+
+    private static boolean matches(@NotNull String raw, @NotNull CharSequence id, int start, int end) {
+        if (raw.length() != end - start) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (raw.charAt(i - start) != asciiUpperCase(id.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Returns an unmodifiable list, sorted by (plaintext) ingredient name.
+    // Nothing is computed here, the list has been built at construction time.
+
+    public @NotNull List<Ingredient> getByType(@NotNull IngredientType type) {
+        final List<Ingredient> res = byType.get(type);
+        return (res != null) ? res : Collections.emptyList();
+    }
+
+    // Whether there is any ingredient of this type. Allocates nothing.
+
+    public boolean occurs(@NotNull IngredientType type) {
+        return byType.containsKey(type);
+    }
+
+    public int size() {
+        return map.size();
     }
 
     public @NotNull Stream<IngredientId> getIdStream() {
@@ -78,10 +262,23 @@ public class IngredientRelation  {
 
     // In order to allow the possibility of having a variable set of types,
     // get the list of available types from the relation, not from the enum.
-    // TODO: Should be buffered?
+    // Returns an unmodifiable list computed at construction time.
+
+    public @NotNull List<IngredientType> getTypesOccurring() {
+        return typesOccurring;
+    }
+
+    // Returns an unmodifiable map computed at construction time, from lowercase type name
+    // to the ingredients of that type (as returned by getByType()). Only types that occur.
+
+    public @NotNull Map<String, List<Ingredient>> getByTypeName() {
+        return byTypeName;
+    }
+
+    // Same value for relations with the same ingredients (ids, names and types). Computed at construction time.
 
-    public @NotNull ArrayList<IngredientType> getTypesOccurring() {
-        return getTypesOccuring(map.values());
+    public long getFingerprint() {
+        return fingerprint;
     }
 
     // Get the list of types that occur in the collection of ingredients.
@@ -96,13 +293,14 @@ public class IngredientRelation  {
     }
 
     // Get the list of ingredients that have the given type and that occur in the collection of ingredients.
-    // Returns a sorted list, with the ingredients sorted by their (plaintext) name
+    // Returns a sorted list, with the ingredients sorted by their (plaintext) name, then by id,
+    // so that the order is the same every time.
 
     public static @NotNull ArrayList<Ingredient> getIngredientsByType(@NotNull Collection<Ingredient> ingredients, @NotNull IngredientType type) {
         return ingredients.stream()
                 .filter(ingredient -> ingredient.getType() == type)
                 .distinct() // "stateful intermediate operation"
-                .sorted(Comparator.comparing(Ingredient::getName)) // "stateful intermediate operation"
+                .sorted(Comparator.comparing(Ingredient::getName).thenComparing(ingredient -> ingredient.getId().getRaw())) // "stateful intermediate operation"
                 .collect(Collectors.toCollection(ArrayList::new));
     }
 
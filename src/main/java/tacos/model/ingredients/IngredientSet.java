@@ -0,0 +1,315 @@
+package tacos.model.ingredients;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.*;
+
+// ---
+// A compact, mutable Set<Ingredient> backed by a bitmask over the ingredient ordinals
+// (see IngredientOrdinals). The first 64 ordinals live in a single long, further ones
+// in an array that is only created when needed. The members themselves are kept in an
+// array sorted by ordinal, so the set hands out exactly the instances that were added
+// (like a HashSet) without looking anything up. Compared to a HashSet, there are no
+// per-entry nodes and no table, which matters as there is a set for every taco in
+// every session.
+//
+// Code that wants the current catalog's view of the members resolves the ordinals
+// through its IngredientRelation snapshot (see IngredientRelation.getByOrdinal()).
+//
+// It is a regular Set as far as Spring binding, Thymeleaf "th:field" and Jakarta
+// validation are concerned. Iteration is in order of ordinals.
+// Not thread-safe (like HashSet).
+// ---
+
+public final class IngredientSet extends AbstractSet<Ingredient> {
+
+    private long low; // ordinals 0..63
+
+    private long[] high; // ordinals 64.., null until needed
+
+    private final static Ingredient[] noMembers = new Ingredient[0];
+
+    private Ingredient[] members = noMembers; // sorted by ordinal, "size" of them are used
+
+    private int size;
+
+    private int modCount; // to detect concurrent modification during iteration
+
+    public IngredientSet() {
+    }
+
+    // Any nulls in "ingredients" are skipped (the converter yields null for unknown ids).
+
+    public static @NotNull IngredientSet copyOf(@NotNull Collection<Ingredient> ingredients) {
+        if (ingredients instanceof IngredientSet other) {
+            final IngredientSet res = new IngredientSet();
+            res.low = other.low;
+            res.high = (other.high == null) ? null : other.high.clone();
+            res.members = Arrays.copyOf(other.members, other.size);
+            res.size = other.size;
+            return res;
+        }
+        final IngredientSet res = new IngredientSet();
+        for (Ingredient ingredient : ingredients) {
+            if (ingredient != null) {
+                res.add(ingredient);
+            }
+        }
+        return res;
+    }
+
+    // ---
+    // Bit manipulation
+    // ---
+
+    public boolean containsOrdinal(int ordinal) {
+        if (ordinal < 64) {
+            return (low & (1L << ordinal)) != 0;
+        }
+        final int index = (ordinal >>> 6) - 1;
+        return high != null && index < high.length && (high[index] & (1L << ordinal)) != 0;
+    }
+
+    private boolean setOrdinal(int ordinal) {
+        final boolean res;
+        if (ordinal < 64) {
+            final long old = low;
+            low |= (1L << ordinal);
+            res = (old != low);
+        } else {
+            final int index = (ordinal >>> 6) - 1;
+            if (high == null) {
+                high = new long[index + 1];
+            } else if (index >= high.length) {
+                high = Arrays.copyOf(high, index + 1);
+            }
+            final long old = high[index];
+            high[index] |= (1L << ordinal);
+            res = (old != high[index]);
+        }
+        if (res) {
+            modCount++;
+        }
+        return res;
+    }
+
+    private boolean clearOrdinal(int ordinal) {
+        final boolean res;
+        if (ordinal < 64) {
+            final long old = low;
+            low &= ~(1L << ordinal);
+            res = (old != low);
+        } else {
+            final int index = (ordinal >>> 6) - 1;
+            if (high == null || index >= high.length) {
+                return false;
+            }
+            final long old = high[index];
+            high[index] &= ~(1L << ordinal);
+            res = (old != high[index]);
+        }
+        if (res) {
+            modCount++;
+        }
+        return res;
+    }
+
+    // The number of members with an ordinal below "ordinal", i.e. the position in "members"
+    // of the ingredient with that ordinal.
+
+    private int rank(int ordinal) {
+        if (ordinal < 64) {
+            return Long.bitCount(low & ((1L << ordinal) - 1));
+        }
+        int res = Long.bitCount(low);
+        if (high != null) {
+            final int index = (ordinal >>> 6) - 1;
+            final int limit = Math.min(index, high.length);
+            for (int i = 0; i < limit; i++) {
+                res += Long.bitCount(high[i]);
+            }
+            if (index < high.length) {
+                res += Long.bitCount(high[index] & ((1L << ordinal) - 1));
+            }
+        }
+        return res;
+    }
+
+    private void insertMember(int position, @NotNull Ingredient ingredient) {
+        if (size == members.length) {
+            members = Arrays.copyOf(members, Math.max(4, 2 * size));
+        }
+        System.arraycopy(members, position, members, position + 1, size - position);
+        members[position] = ingredient;
+        size++;
+    }
+
+    private void removeMember(int position) {
+        System.arraycopy(members, position + 1, members, position, size - position - 1);
+        members[--size] = null;
+    }
+
+    // The next ordinal in the set at or after "from", or -1 if there is none.
+    // Like BitSet.nextSetBit(), this allows iterating without an Iterator:
+    // for (int i = set.nextOrdinal(0); i >= 0; i = set.nextOrdinal(i + 1)) { ... }
+
+    public int nextOrdinal(int from) {
+        if (from < 64) {
+            final long word = low & (-1L << from);
+            if (word != 0) {
+                return Long.numberOfTrailingZeros(word);
+            }
+            from = 64;
+        }
+        if (high != null) {
+            int index = (from >>> 6) - 1;
+            if (index < high.length) {
+                long word = high[index] & (-1L << from);
+                while (true) {
+                    if (word != 0) {
+                        return ((index + 1) << 6) + Long.numberOfTrailingZeros(word);
+                    }
+                    index++;
+                    if (index >= high.length) {
+                        break;
+                    }
+                    word = high[index];
+                }
+            }
+        }
+        return -1;
+    }
+
+    // ---
+    // Serialized form (used by Taco.writeExternal()).
+    //
+    // Ordinals are only valid within one JVM, so each ingredient is written in full: id, name
+    // and type. On reading, the ingredients are constructed from what was written (and get
+    // the ordinals of their ids in this JVM), as they were when the session was stored.
+    // ---
+
+    public void writeTo(@NotNull DataOutput out) throws IOException {
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            final Ingredient ingredient = members[i];
+            out.writeUTF(ingredient.getId().getRaw());
+            out.writeUTF(ingredient.getName());
+            out.writeUTF(ingredient.getType().name());
+        }
+    }
+
+    public static @NotNull IngredientSet readFrom(@NotNull DataInput in) throws IOException {
+        final IngredientSet res = new IngredientSet();
+        final int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            final IngredientId id = IngredientId.of(in.readUTF());
+            final String name = in.readUTF();
+            final String typeName = in.readUTF();
+            final IngredientType type;
+            try {
+                type = IngredientType.valueOf(typeName);
+            } catch (IllegalArgumentException ex) {
+                throw new IOException("Unknown ingredient type '" + typeName + "' of " + id, ex);
+            }
+            res.add(new Ingredient(id, name, type));
+        }
+        return res;
+    }
+
+    // ---
+    // Set interface
+    // ---
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return (o instanceof Ingredient ingredient) && containsOrdinal(ingredient.getOrdinal());
+    }
+
+    @Override
+    public boolean add(@NotNull Ingredient ingredient) {
+        final int ordinal = ingredient.getOrdinal();
+        if (containsOrdinal(ordinal)) {
+            return false;
+        }
+        insertMember(rank(ordinal), ingredient);
+        return setOrdinal(ordinal);
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!(o instanceof Ingredient ingredient) || !containsOrdinal(ingredient.getOrdinal())) {
+            return false;
+        }
+        removeMember(rank(ingredient.getOrdinal()));
+        return clearOrdinal(ingredient.getOrdinal());
+    }
+
+    @Override
+    public void clear() {
+        if (size > 0 || high != null) {
+            low = 0;
+            high = null;
+            members = noMembers;
+            size = 0;
+            modCount++;
+        }
+    }
+
+    @Override
+    public @NotNull Iterator<Ingredient> iterator() {
+        return new Iterator<>() {
+
+            private int next; // position in "members"
+
+            private int last = -1;
+
+            private int expectedModCount = modCount;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public Ingredient next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+                last = next++;
+                return members[last];
+            }
+
+            @Override
+            public void remove() {
+                if (last < 0) {
+                    throw new IllegalStateException();
+                }
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                final int ordinal = members[last].getOrdinal();
+                removeMember(last);
+                clearOrdinal(ordinal);
+                expectedModCount = modCount;
+                next = last;
+                last = -1;
+            }
+        };
+    }
+}
@@ -4,7 +4,8 @@ import tacos.model.ingredients.IngredientRelation;
 
 public interface IngredientsSource {
 
-    // Create a new IngredientRelation with the latest data
+    // Create a new IngredientRelation with the latest data.
+    // This is called by the IngredientCatalog, at startup and then periodically.
 
     IngredientRelation refresh();
 
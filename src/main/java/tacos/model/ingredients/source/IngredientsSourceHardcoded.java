@@ -2,6 +2,7 @@ package tacos.model.ingredients.source;
 
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 import tacos.model.ingredients.*;
@@ -9,9 +10,14 @@ import tacos.model.ingredients.*;
 import java.util.ArrayList;
 import java.util.List;
 
+// ---
+// Ingredients hardcoded in Java. This is the default if "tacos.ingredients.source" is not set.
+// ---
+
 @Slf4j
 @Component // To be scanned by Spring
 @Scope("singleton") // In scope "singleton": create only one
+@ConditionalOnProperty(name = "tacos.ingredients.source", havingValue = "hardcoded", matchIfMissing = true)
 public class IngredientsSourceHardcoded implements IngredientsSource {
 
     private static void addIngredient(
@@ -19,7 +25,7 @@ public class IngredientsSourceHardcoded implements IngredientsSource {
             @NotNull String id,
             @NotNull String name,
             @NotNull IngredientType type) {
-        ingredients.add(new Ingredient(new IngredientId(id), name, type));
+        ingredients.add(new Ingredient(IngredientId.of(id), name, type));
     }
 
     @Override
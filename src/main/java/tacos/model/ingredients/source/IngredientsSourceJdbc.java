@@ -2,15 +2,25 @@ package tacos.model.ingredients.source;
 
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 import tacos.jdbc.JdbcIngredientRepository;
+import tacos.model.ingredients.Ingredient;
 import tacos.model.ingredients.IngredientRelation;
 import tacos.model.ingredients.IngredientsSource;
 
+import java.util.stream.Stream;
+
+// ---
+// Ingredients read from table "Ingredient" (see "schema.sql" and "data.sql").
+// Selected with "tacos.ingredients.source: jdbc".
+// ---
+
 @Slf4j
-// @Component // To be scanned by Spring
+@Component // To be scanned by Spring
 @Scope("singleton") // In scope "singleton": create only one
+@ConditionalOnProperty(name = "tacos.ingredients.source", havingValue = "jdbc")
 public class IngredientsSourceJdbc implements IngredientsSource {
 
     private final JdbcIngredientRepository ingredientRepository;
@@ -19,9 +29,13 @@ public class IngredientsSourceJdbc implements IngredientsSource {
         this.ingredientRepository = ingredientRepository;
     }
 
+    // Built straight from the database cursor, without an intermediate list
+
     @Override
     public IngredientRelation refresh() {
-        return new IngredientRelation(ingredientRepository.findAll());
+        try (Stream<Ingredient> ingredients = ingredientRepository.streamAll()) {
+            return new IngredientRelation(ingredients);
+        }
     }
 
 }
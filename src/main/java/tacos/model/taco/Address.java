@@ -1,33 +1,43 @@
 package tacos.model.taco;
 
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import tacos.model.helpers.Helpers;
 
+// The maximum lengths are those of the "delivery_*" columns of Taco_Order (see schema.sql)
+
 @Slf4j
 @Data
 public class Address {
 
     @NotBlank(message = "Name is required")
+    @Size(max = 50, message = "Name must be at most 50 characters long")
     private String name;
 
     @NotBlank(message = "Street is required")
+    @Size(max = 50, message = "Street must be at most 50 characters long")
     private String street;
 
     @NotBlank(message = "City is required")
+    @Size(max = 50, message = "City must be at most 50 characters long")
     private String city;
 
     @NotBlank(message = "State is required")
+    @Size(max = 20, message = "State must be at most 20 characters long")
     private String state;
 
     @NotBlank(message = "Zip code is required")
+    @Size(max = 10, message = "Zip code must be at most 10 characters long")
     private String zip;
 
     // In order to pre-fill form fields, deliver valid data immediately!
 
     public Address() {
-        log.info(">>> {} created", Helpers.makeLocator(this));
+        if (log.isTraceEnabled()) {
+            log.trace(">>> {} created", Helpers.makeLocator(this));
+        }
         this.name = "Whoever";
         this.street = "Ammonia Ave.";
         this.city = "Carcosa";
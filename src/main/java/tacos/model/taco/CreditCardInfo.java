@@ -1,30 +1,39 @@
 package tacos.model.taco;
 
 import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.Size;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.hibernate.validator.constraints.CreditCardNumber;
 import tacos.model.helpers.Helpers;
 import tacos.validation.CreditCardExpiryDate;
 
+// The maximum lengths are those of the "cc_*" columns of Taco_Order (see schema.sql):
+// card numbers have up to 19 digits, the expiry date may have blanks around its parts.
+
 @Slf4j
 @Data
 public class CreditCardInfo {
 
     @CreditCardNumber(message = "Not a valid credit card number")
+    @Size(max = 19, message = "Not a valid credit card number")
     private String ccNumber;
 
     @CreditCardExpiryDate // message built in validator
+    @Size(max = 16, message = "Expiry date must be at most 16 characters long")
     private String ccExpiration;
 
     @Digits(integer = 3, fraction = 0, message = "Invalid credit card CVV")
+    @Size(max = 3, message = "Invalid credit card CVV") // "@Digits" lets "-123" through
     private String ccCVV;
 
     // In order to pre-fill form fields, deliver valid data immediately!
     // Data has been generated by a random credit card data generator.
 
     public CreditCardInfo() {
-        log.info(">>> {} created", Helpers.makeLocator(this));
+        if (log.isTraceEnabled()) {
+            log.trace(">>> {} created", Helpers.makeLocator(this));
+        }
         this.ccNumber = "4772687290188749";
         this.ccExpiration = "05/2026";
         this.ccCVV = "550";
@@ -9,8 +9,10 @@ import tacos.model.helpers.Helpers;
 import tacos.model.ingredients.Ingredient;
 import tacos.model.ingredients.IngredientType;
 import tacos.model.ingredients.IngredientRelation;
+import tacos.model.ingredients.IngredientSet;
 import tacos.validation.TacoIngredients;
 
+import java.io.*;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -22,6 +24,10 @@ import java.util.stream.Collectors;
 // This is a mutable Java Bean from which the Spring framework reads values and into which it
 // inserts values. Being mutable, it can be invalid, e.g. have a null "name" and no "ingredients".
 // Getters and setters are created by Lombok via the @Data annotation.
+//
+// Tacos live in the session (inside the TacoOrder), so they are kept small: the ingredients
+// are a bitmask (IngredientSet), the creation time is a plain long. They are written out
+// in a compact Externalizable form by TacoOrder.
 // ---
 
 // Design problem: "Taco" may well need a dedicated ID, not only a "name".
@@ -31,32 +37,99 @@ import java.util.stream.Collectors;
 @Slf4j
 @Data
 @Component
-public class Taco {
+public class Taco implements Externalizable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    // Version of the format written by writeExternal(); readExternal() rejects any other
+
+    private static final int externalFormat = 2;
 
     // Field to make Taco database-insertable (Chapter 3.1.1)
     private Long id;
 
-    // Added in Chapter 3.1.1
-    private Date createdAt = new Date();
+    // Added in Chapter 3.1.1. Milliseconds since the epoch, exposed as a Date.
+    private long createdAt = System.currentTimeMillis();
 
     public Taco() {
-        log.info(">>> {} created", Helpers.makeLocator(this));
+        if (log.isTraceEnabled()) {
+            log.trace(">>> {} created", Helpers.makeLocator(this));
+        }
     }
 
     // The validation annotations are check at "validation" time just before the handler method is called
 
     @jakarta.validation.constraints.NotNull
     @Size(min = 5, message = "Name must be at least 5 characters long")
+    @Size(max = 50, message = "Name must be at most 50 characters long") // the width of Taco.name, see schema.sql
     private String name;
 
     // The validation annotations are check at "validation" time just before the handler method is called
-    // The "ingredients" set is replaced "as a whole" in a Lombok-generated setter
-    // method, but is initially a not-null, but empty Set.
+    // The "ingredients" set is replaced "as a whole" in the setter method below, but is initially
+    // a not-null, but empty Set. It is always a compact, bitmask-backed IngredientSet.
     // Instead of a single @Size validation, we use a special @TacoIngredients validation
 
     @jakarta.validation.constraints.NotNull
     @TacoIngredients
-    private Set<Ingredient> ingredients = new HashSet<>();
+    private Set<Ingredient> ingredients = new IngredientSet();
+
+    // Not generated by Lombok: Spring binding hands us whatever Set it has created
+    // (a LinkedHashSet), so copy that into an IngredientSet.
+
+    public void setIngredients(Set<Ingredient> ingredients) {
+        this.ingredients = (ingredients == null) ? null : IngredientSet.copyOf(ingredients);
+    }
+
+    // A copy with its own IngredientSet (see TacoOrder.copy())
+
+    public @NotNull Taco copy() {
+        final Taco res = new Taco();
+        res.id = id;
+        res.createdAt = createdAt;
+        res.name = name;
+        res.ingredients = (ingredients == null) ? null : IngredientSet.copyOf(ingredients);
+        return res;
+    }
+
+    public @NotNull Date getCreatedAt() {
+        return new Date(createdAt);
+    }
+
+    public void setCreatedAt(@NotNull Date createdAt) {
+        this.createdAt = createdAt.getTime();
+    }
+
+    // ---
+    // Externalizable
+    // ---
+
+    @Override
+    public void writeExternal(@NotNull ObjectOutput out) throws IOException {
+        out.writeByte(externalFormat);
+        out.writeBoolean(id != null);
+        if (id != null) {
+            out.writeLong(id);
+        }
+        out.writeLong(createdAt);
+        Helpers.writeNullableString(out, name);
+        out.writeBoolean(ingredients != null);
+        if (ingredients != null) {
+            ((IngredientSet) ingredients).writeTo(out);
+        }
+    }
+
+    @Override
+    public void readExternal(@NotNull ObjectInput in) throws IOException {
+        final int format = in.readByte();
+        if (format != externalFormat) {
+            throw new InvalidObjectException("Unknown Taco format " + format);
+        }
+        id = in.readBoolean() ? in.readLong() : null;
+        createdAt = in.readLong();
+        name = Helpers.readNullableString(in);
+        ingredients = in.readBoolean() ? IngredientSet.readFrom(in) : null;
+    }
 
     // Let Lombok generate default constructor and getters and setters!
     //
@@ -1,12 +1,17 @@
 package tacos.model.taco;
 
 import jakarta.validation.Valid;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Setter;
+import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import tacos.model.helpers.Helpers;
 
-import java.io.Serial;
-import java.io.Serializable;
+import java.io.*;
 import java.util.*;
 
 // ---
@@ -16,33 +21,55 @@ import java.util.*;
 // ---
 // This is a mutable Java Bean from/into which the Spring framework sets/gets values.
 // Getters and setters are created by Lombok via the @Data annotation.
+//
+// An instance lives in the HTTP session of every visitor (@SessionAttributes("tacoOrder")),
+// so it is kept small: the tacos map is only created with the first taco, the payment and
+// delivery sections only when the order form asks for them, "placedAt" is a plain long.
+// Lombok's equals()/hashCode()/toString() must not go through the getters, which would
+// create those sections.
+//
+// Serialization (when the session is persisted or replicated) uses a compact, versioned
+// Externalizable form instead of default serialization.
+//
+// The external form holds no card data but the expiry date: the card number and the CVV
+// are left out, so that they never reach a session file (see MvStoreSessionStore), which is
+// not encrypted. After a session has been swapped out (or the application restarted), the
+// visitor has to enter them again; the order form then shows them empty.
 // ---
 
 @Slf4j
 @Data
-public class TacoOrder implements Serializable {
+@EqualsAndHashCode(doNotUseGetters = true)
+@ToString(doNotUseGetters = true)
+public class TacoOrder implements Externalizable {
 
     // Added in Chapter 3.1.1
     @Serial
     private static final long serialVersionUID = 1L;
 
+    // Version of the format written by writeExternal(); readExternal() rejects any other
+
+    private static final int externalFormat = 3;
+
+    private static final long notPlaced = Long.MIN_VALUE;
+
     // Added in Chapter 3.1.1
     private Long id;
 
-    // Added in Chapter 3.1.1
-    private Date placedAt;
+    // Added in Chapter 3.1.1. Milliseconds since the epoch, exposed as a nullable Date.
+    private long placedAt = notPlaced;
 
-    private Map<String, Taco> tacos = new HashMap<>();
+    // Sorted by name, null until the first taco is added
 
-    // Is it right to create instance of CreditCardInfo and DeliveryAddress here?
-    // Should Spring Framework take over the wiring?
-    // Can these be final (probably not if the framework expects them to be settable)
+    @Setter(AccessLevel.NONE)
+    private TreeMap<String, Taco> tacos;
 
-    @Valid
-    private CreditCardInfo ccInfo = new CreditCardInfo();
+    // Created on first access, i.e. when the order form is shown or bound.
+    // @Valid is on the getters, so that validation sees (and creates) them, too.
 
-    @Valid
-    private Address deliveryAddress = new Address();
+    private CreditCardInfo ccInfo;
+
+    private Address deliveryAddress;
 
     // We are rather severe in accepting Tacos!
     // An exception here will result in an "Internal Server Error", not very nice.
@@ -53,6 +80,9 @@ public class TacoOrder implements Serializable {
     // - Throw an exception in the controller handler and have something in spring that handles it
 
     public void addTaco(@NotNull Taco taco) {
+        if (tacos == null) {
+            tacos = new TreeMap<>();
+        }
         if (tacos.containsKey(taco.getName())) {
             // This cannot have been caught by validation...
             throw new IllegalArgumentException("There already is a taco named " + taco.getName());
@@ -60,7 +90,134 @@ public class TacoOrder implements Serializable {
         this.tacos.put(taco.getName(), taco);
     }
 
-    public SortedSet<String> getTacoNames() {
-        return new TreeSet<>(tacos.keySet());
+    // Unmodifiable view, sorted by name
+
+    public @NotNull SortedMap<String, Taco> getTacos() {
+        return (tacos == null) ? Collections.emptySortedMap() : Collections.unmodifiableSortedMap(tacos);
+    }
+
+    public @NotNull SortedSet<String> getTacoNames() {
+        return (tacos == null) ? Collections.emptySortedSet() : Collections.unmodifiableSortedSet(tacos.navigableKeySet());
+    }
+
+    public @Nullable Date getPlacedAt() {
+        return (placedAt == notPlaced) ? null : new Date(placedAt);
+    }
+
+    public void setPlacedAt(@Nullable Date placedAt) {
+        this.placedAt = (placedAt == null) ? notPlaced : placedAt.getTime();
+    }
+
+    // A deep copy that shares nothing mutable with this order, for handing an order to another
+    // thread while the session still holds this one (see OrderController)
+
+    public @NotNull TacoOrder copy() {
+        final TacoOrder res = new TacoOrder();
+        res.id = id;
+        res.placedAt = placedAt;
+        if (tacos != null) {
+            for (Taco taco : tacos.values()) {
+                res.addTaco(taco.copy());
+            }
+        }
+        if (ccInfo != null) {
+            final CreditCardInfo cc = res.getCcInfo();
+            cc.setCcNumber(ccInfo.getCcNumber());
+            cc.setCcExpiration(ccInfo.getCcExpiration());
+            cc.setCcCVV(ccInfo.getCcCVV());
+        }
+        if (deliveryAddress != null) {
+            final Address address = res.getDeliveryAddress();
+            address.setName(deliveryAddress.getName());
+            address.setStreet(deliveryAddress.getStreet());
+            address.setCity(deliveryAddress.getCity());
+            address.setState(deliveryAddress.getState());
+            address.setZip(deliveryAddress.getZip());
+        }
+        return res;
+    }
+
+    // Is it right to create instance of CreditCardInfo and DeliveryAddress here?
+    // Should Spring Framework take over the wiring?
+
+    @Valid
+    public @NotNull CreditCardInfo getCcInfo() {
+        if (ccInfo == null) {
+            ccInfo = new CreditCardInfo();
+        }
+        return ccInfo;
+    }
+
+    @Valid
+    public @NotNull Address getDeliveryAddress() {
+        if (deliveryAddress == null) {
+            deliveryAddress = new Address();
+        }
+        return deliveryAddress;
+    }
+
+    // ---
+    // Externalizable
+    // ---
+
+    @Override
+    public void writeExternal(@NotNull ObjectOutput out) throws IOException {
+        out.writeByte(externalFormat);
+        out.writeBoolean(id != null);
+        if (id != null) {
+            out.writeLong(id);
+        }
+        out.writeLong(placedAt);
+        out.writeInt((tacos == null) ? 0 : tacos.size());
+        if (tacos != null) {
+            for (Taco taco : tacos.values()) {
+                taco.writeExternal(out);
+            }
+        }
+        out.writeBoolean(ccInfo != null);
+        if (ccInfo != null) {
+            Helpers.writeNullableString(out, ccInfo.getCcExpiration()); // not the number, not the CVV
+        }
+        out.writeBoolean(deliveryAddress != null);
+        if (deliveryAddress != null) {
+            Helpers.writeNullableString(out, deliveryAddress.getName());
+            Helpers.writeNullableString(out, deliveryAddress.getStreet());
+            Helpers.writeNullableString(out, deliveryAddress.getCity());
+            Helpers.writeNullableString(out, deliveryAddress.getState());
+            Helpers.writeNullableString(out, deliveryAddress.getZip());
+        }
+    }
+
+    @Override
+    public void readExternal(@NotNull ObjectInput in) throws IOException {
+        final int format = in.readByte();
+        if (format != externalFormat) {
+            throw new InvalidObjectException("Unknown TacoOrder format " + format);
+        }
+        id = in.readBoolean() ? in.readLong() : null;
+        placedAt = in.readLong();
+        final int tacoCount = in.readInt();
+        tacos = null;
+        for (int i = 0; i < tacoCount; i++) {
+            final Taco taco = new Taco();
+            taco.readExternal(in);
+            addTaco(taco);
+        }
+        ccInfo = null;
+        if (in.readBoolean()) {
+            final CreditCardInfo cc = getCcInfo();
+            cc.setCcExpiration(Helpers.readNullableString(in));
+            cc.setCcNumber(null); // not written, and not the pre-filled defaults either
+            cc.setCcCVV(null);
+        }
+        deliveryAddress = null;
+        if (in.readBoolean()) {
+            final Address address = getDeliveryAddress();
+            address.setName(Helpers.readNullableString(in));
+            address.setStreet(Helpers.readNullableString(in));
+            address.setCity(Helpers.readNullableString(in));
+            address.setState(Helpers.readNullableString(in));
+            address.setZip(Helpers.readNullableString(in));
+        }
     }
-}
\ No newline at end of file
+}
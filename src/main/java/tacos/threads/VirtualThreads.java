@@ -0,0 +1,69 @@
+package tacos.threads;
+
+import org.jetbrains.annotations.NotNull;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+
+// ---
+// Access to virtual threads (Java 21) from code compiled for Java 17, through reflection on
+// "Thread.ofVirtual()". The reflection happens once per factory, not per thread.
+//
+// "factory()" is what the components that own threads call: with virtual threads switched
+// on ("tacos.threads.virtual: true", see VirtualThreadsConfig) it hands out virtual threads,
+// otherwise the platform threads they had before.
+// ---
+
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+        // not instantiable
+    }
+
+    // True if the running JVM has virtual threads
+
+    public static boolean isSupported() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        } catch (NoSuchMethodException ex) {
+            return false;
+        }
+    }
+
+    // A factory of threads named "<prefix>1", "<prefix>2"..., virtual ones if "virtual" is set.
+    // Throws IllegalStateException if virtual threads are asked for but not supported.
+
+    public static @NotNull ThreadFactory factory(@NotNull String prefix, boolean virtual) {
+        if (!virtual) {
+            return new CustomizableThreadFactory(prefix);
+        }
+        try {
+            final Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            final Method name = builderClass.getMethod("name", String.class, long.class);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(name.invoke(builder, prefix, 1L));
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("Virtual threads need Java 21, this is Java " + Runtime.version().feature(), ex);
+        }
+    }
+
+    // An executor that starts one new thread of the factory per task, as
+    // Executors.newThreadPerTaskExecutor() does on Java 21 (without the ExecutorService part)
+
+    public static @NotNull Executor perTaskExecutor(@NotNull ThreadFactory threadFactory) {
+        return task -> threadFactory.newThread(task).start();
+    }
+
+    // Thread.isVirtual() of Java 21; false on earlier versions
+
+    public static boolean isVirtual(@NotNull Thread thread) {
+        try {
+            return (Boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+        } catch (ReflectiveOperationException ex) {
+            return false;
+        }
+    }
+}
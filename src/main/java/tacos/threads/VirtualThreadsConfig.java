@@ -0,0 +1,49 @@
+package tacos.threads;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.task.TaskSchedulerCustomizer;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// ---
+// Opt-in with "tacos.threads.virtual: true", on Java 21 (startup fails on earlier versions):
+//
+// - Tomcat runs each request on a new virtual thread instead of taking a thread of its pool
+//   ("server.tomcat.threads.max" no longer applies; connections are still limited by
+//   "server.tomcat.max-connections").
+// - The @Scheduled jobs (catalog refresh, co-occurrence merge) run on virtual threads.
+// - The order writer of the OrderWriteBehindQueue is a virtual thread (it reads the same
+//   property).
+//
+// A virtual thread that blocks while holding a monitor ("synchronized") pins its carrier
+// thread, so the code on these paths uses java.util.concurrent locks instead. Pinning that
+// remains (e.g. in drivers) shows with "-Djdk.tracePinnedThreads=short".
+// ---
+
+@Slf4j
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "tacos.threads.virtual", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    public VirtualThreadsConfig() {
+        if (!VirtualThreads.isSupported()) {
+            throw new IllegalStateException("'tacos.threads.virtual' needs Java 21, this is Java " + Runtime.version().feature());
+        }
+        log.info("Requests and background jobs run on virtual threads");
+    }
+
+    @Bean
+    public @NotNull WebServerFactoryCustomizer<TomcatServletWebServerFactory> virtualThreadsCustomizer() {
+        return factory -> factory.addProtocolHandlerCustomizers(protocolHandler ->
+                protocolHandler.setExecutor(VirtualThreads.perTaskExecutor(VirtualThreads.factory("http-vt-", true))));
+    }
+
+    @Bean
+    public @NotNull TaskSchedulerCustomizer virtualThreadsSchedulerCustomizer() {
+        return scheduler -> scheduler.setThreadFactory(VirtualThreads.factory("scheduling-vt-", true));
+    }
+}
@@ -1,5 +1,7 @@
 package tacos.validation;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
 import lombok.extern.slf4j.Slf4j;
@@ -8,6 +10,7 @@ import org.jetbrains.annotations.NotNull;
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.time.temporal.ChronoField;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -19,6 +22,7 @@ import java.util.regex.Pattern;
 
 // ---
 // A custom validator for credit card expiration date (or expiry date, same thing)
+// Each call is timed (see ValidationTimers).
 // ---
 
 // Hints:
@@ -47,6 +51,14 @@ public class CreditCardExpiryDateValidator implements ConstraintValidator<Credit
 
     private final static Pattern pat = Pattern.compile("\\s*(\\d+)\\s*/\\s*(\\d+)\\s*");
 
+    private final Timer timer;
+
+    // Injected by Spring's ConstraintValidatorFactory
+
+    public CreditCardExpiryDateValidator(@NotNull MeterRegistry meterRegistry) {
+        this.timer = ValidationTimers.timer(meterRegistry, "ccExpiryDate");
+    }
+
     @Override
     public void initialize(@NotNull CreditCardExpiryDate constraintAnnotation) {
         // no need to do anything
@@ -54,6 +66,15 @@ public class CreditCardExpiryDateValidator implements ConstraintValidator<Credit
 
     @Override
     public boolean isValid(@NotNull String value, @NotNull ConstraintValidatorContext context) {
+        final long start = System.nanoTime();
+        try {
+            return validate(value, context);
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private boolean validate(@NotNull String value, @NotNull ConstraintValidatorContext context) {
         AnalysisResult ares = analyze(value);
         if (ares.isError()) {
             // use the bespoke message passed in "ares"
@@ -1,24 +1,75 @@
 package tacos.validation;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
 import tacos.model.helpers.Helpers;
 import tacos.model.ingredients.Ingredient;
+import tacos.model.ingredients.IngredientCatalog;
 import tacos.model.ingredients.IngredientRelation;
+import tacos.model.ingredients.IngredientSet;
+import tacos.model.ingredients.IngredientType;
 
-import java.util.LinkedList;
-import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// ---
+// Checks the ingredients of a Taco against the rules of the IngredientTypes
+// (see IngredientType.isMandatory() and IngredientType.isExclusive()).
+//
+// This runs on every POST of a taco, so it is written to allocate nothing for a valid
+// taco: the rules and messages are precomputed per type, and the ingredients are counted
+// per type in a single pass. Only when there is a violation is a message built.
+//
+// The counts are not kept in an int[] but in a single long, 2 bits per type, indexed
+// by IngredientType.ordinal(). A local int[] would be allocated on every call, as the
+// JIT can't scalar-replace an array that is indexed by a variable. The rules only need
+// to distinguish 0, 1 and "more than 1", so the 2-bit counts saturate at 2.
+//
+// Each call is timed (see ValidationTimers), with two System.nanoTime() calls.
+// ---
 
 @Slf4j
 public class TacoIngredientsValidator implements ConstraintValidator<TacoIngredients, Set<Ingredient>> {
 
-    private final IngredientRelation ingredientRelation;
+    // Precomputed type rules and messages, indexed by IngredientType.ordinal()
+
+    private final static int saturated = 2; // a count of 2 means "2 or more"
+
+    private final static IngredientType[] types = IngredientType.values();
+
+    private final static int[] minCount = new int[types.length];
+
+    private final static int[] maxCount = new int[types.length];
+
+    private final static String[] tooFewMessage = new String[types.length];
+
+    private final static String[] tooManyMessage = new String[types.length];
+
+    static {
+        assert types.length <= Long.SIZE / 2 : "2 bits per type in a long";
+        for (IngredientType type : types) {
+            final int i = type.ordinal();
+            minCount[i] = type.isMandatory() ? 1 : 0;
+            maxCount[i] = type.isExclusive() ? 1 : saturated;
+            tooFewMessage[i] = "Select at least one " + type.name().toLowerCase();
+            tooManyMessage[i] = "Select at most one " + type.name().toLowerCase();
+        }
+    }
+
+    // Injected by Spring's ConstraintValidatorFactory. This is the same catalog
+    // that the controllers use, so validation sees the same types as the form.
+
+    private final IngredientCatalog ingredientCatalog;
 
-    public TacoIngredientsValidator(@NotNull IngredientRelation ingredientRelation) {
-        this.ingredientRelation = ingredientRelation;
+    private final Timer timer;
+
+    public TacoIngredientsValidator(@NotNull IngredientCatalog ingredientCatalog, @NotNull MeterRegistry meterRegistry) {
+        this.ingredientCatalog = ingredientCatalog;
+        this.timer = ValidationTimers.timer(meterRegistry, "ingredients");
         log.info(">>> {} created", Helpers.makeLocator(this));
     }
 
@@ -27,26 +78,84 @@ public class TacoIngredientsValidator implements ConstraintValidator<TacoIngredi
         // no need to do anything
     }
 
+    // A null set is left to the @NotNull annotation, as is customary for Jakarta validators.
+
     @Override
-    public boolean isValid(@NotNull Set<Ingredient> ingredients, @NotNull ConstraintValidatorContext context) {
-        List<String> errors = new LinkedList<>();
-        ingredientRelation.getTypesOccurring().forEach(type -> {
-            List<Ingredient> forThisType = IngredientRelation.getIngredientsByType(ingredients, type);
-            if (type.isMandatory() && forThisType.isEmpty()) {
-                errors.add("Select at least one " + type.name().toLowerCase());
-            }
-            if (type.isExclusive() && forThisType.size() > 1) {
-                errors.add("Select at most one " + type.name().toLowerCase());
-            }
-        });
-        if (errors.isEmpty()) {
+    public boolean isValid(Set<Ingredient> ingredients, @NotNull ConstraintValidatorContext context) {
+        final long start = System.nanoTime();
+        try {
+            return validate(ingredients, context);
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private boolean validate(Set<Ingredient> ingredients, @NotNull ConstraintValidatorContext context) {
+        if (ingredients == null) {
             return true;
+        }
+        final IngredientRelation relation = ingredientCatalog.get();
+        long counts = 0;
+        // One pass over the ingredients. Ingredients unknown to the relation are not counted.
+        if (ingredients instanceof IngredientSet ingredientSet) {
+            // iterate over the bits, without an Iterator
+            for (int ordinal = ingredientSet.nextOrdinal(0); ordinal >= 0; ordinal = ingredientSet.nextOrdinal(ordinal + 1)) {
+                final Ingredient ingredient = relation.getByOrdinal(ordinal);
+                if (ingredient != null) {
+                    counts = increment(counts, ingredient.getType().ordinal());
+                }
+            }
         } else {
+            for (Ingredient ingredient : ingredients) {
+                if (ingredient != null && relation.getByOrdinal(ingredient.getOrdinal()) != null) {
+                    counts = increment(counts, ingredient.getType().ordinal());
+                }
+            }
+        }
+        boolean valid = true;
+        for (int i = 0; i < types.length && valid; i++) {
+            final int count = count(counts, i);
+            valid = !relation.occurs(types[i]) || (minCount[i] <= count && count <= maxCount[i]);
+        }
+        if (!valid) {
             // TODO: would it be possible to list several separate errors?
-            String fullText = String.join(" & ", errors);
+            final String fullText = buildMessage(relation, counts);
             context.disableDefaultConstraintViolation();
             context.buildConstraintViolationWithTemplate(fullText).addConstraintViolation();
-            return false;
         }
+        return valid;
+    }
+
+    private static long increment(long counts, int typeOrdinal) {
+        return (count(counts, typeOrdinal) < saturated) ? counts + (1L << (2 * typeOrdinal)) : counts;
+    }
+
+    private static int count(long counts, int typeOrdinal) {
+        return (int) ((counts >>> (2 * typeOrdinal)) & 3);
+    }
+
+    // Only called if there is a violation. Lists all of them.
+
+    private static @NotNull String buildMessage(@NotNull IngredientRelation relation, long counts) {
+        final StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < types.length; i++) {
+            if (relation.occurs(types[i])) {
+                final int count = count(counts, i);
+                if (count < minCount[i]) {
+                    appendError(buf, tooFewMessage[i]);
+                }
+                if (count > maxCount[i]) {
+                    appendError(buf, tooManyMessage[i]);
+                }
+            }
+        }
+        return buf.toString();
+    }
+
+    private static void appendError(@NotNull StringBuilder buf, @NotNull String error) {
+        if (!buf.isEmpty()) {
+            buf.append(" & ");
+        }
+        buf.append(error);
     }
 }
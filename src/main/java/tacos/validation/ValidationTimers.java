@@ -0,0 +1,27 @@
+package tacos.validation;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.jetbrains.annotations.NotNull;
+
+// ---
+// The timers of the validators: one "tacos.validation" timer per validator.
+//
+// The validators are created through Spring's ConstraintValidatorFactory, which injects
+// the MeterRegistry into their constructors (as for the repositories, see QueryTimers).
+// ---
+
+final class ValidationTimers {
+
+    final static String name = "tacos.validation";
+
+    private ValidationTimers() {
+    }
+
+    static @NotNull Timer timer(@NotNull MeterRegistry meterRegistry, @NotNull String validator) {
+        return Timer.builder(name)
+                .description("Time spent in the bean validators")
+                .tag("validator", validator)
+                .register(meterRegistry);
+    }
+}
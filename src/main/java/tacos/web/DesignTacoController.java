@@ -3,16 +3,20 @@ package tacos.web;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.Errors;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import tacos.model.helpers.Helpers;
+import tacos.model.ingredients.IngredientCatalog;
 import tacos.model.ingredients.IngredientRelation;
-import tacos.model.ingredients.IngredientsSource;
 import tacos.model.taco.Taco;
 import tacos.model.taco.TacoOrder;
 import tacos.web.common.Common;
+import tacos.web.common.IngredientCoOccurrence;
+import tacos.web.common.PageETags;
 
 // ---
 // Based on Listing 2.4 of "Spring in Action" 6th edition
@@ -24,23 +28,41 @@ import tacos.web.common.Common;
 @SessionAttributes("tacoOrder") // The bean stored under "tacoOrder" has session scope (is retained between requests)
 public class DesignTacoController {
 
-    private final IngredientRelation ingredientRelation;
+    // Model attribute holding the catalog snapshot of the request
+
+    private final static String relationAttribute = "ingredientRelation";
+
+    private final IngredientCatalog ingredientCatalog;
+
+    private final PageETags pageETags;
+
+    // Counts accepted tacos, for the proposals of the ProposeTacoController
+
+    private final IngredientCoOccurrence coOccurrence;
 
     // Constructor called by Spring at startup time
 
-    public DesignTacoController(@NotNull IngredientsSource ingredientSource) {
-        this.ingredientRelation = ingredientSource.refresh();
-        log.info(">>> {} created with ingredientRelation {}",
+    public DesignTacoController(
+            @NotNull IngredientCatalog ingredientCatalog,
+            @NotNull PageETags pageETags,
+            @NotNull IngredientCoOccurrence coOccurrence) {
+        this.ingredientCatalog = ingredientCatalog;
+        this.pageETags = pageETags;
+        this.coOccurrence = coOccurrence;
+        log.info(">>> {} created with ingredientCatalog {}",
                 Helpers.makeLocator(this),
-                Helpers.makeLocator(ingredientSource));
+                Helpers.makeLocator(ingredientCatalog));
     }
 
     // Filling the (request-scoped) session model so that the ingredients are
-    // available for template processing by Thymeleaf.
+    // available for template processing by Thymeleaf. The catalog snapshot they come
+    // from goes into the model, too, for the ETag of showDesignForm().
 
     @ModelAttribute
     public void addIngredientsToModel(@NotNull Model model) {
-        Common.addIngredientsToModel(this, model, ingredientRelation);
+        final IngredientRelation relation = ingredientCatalog.get();
+        model.addAttribute(relationAttribute, relation);
+        Common.addIngredientsToModel(this, model, relation);
     }
 
     // Obtain a new, empty TacoOrder instance for insertion into the session model.
@@ -50,9 +72,11 @@ public class DesignTacoController {
     @ModelAttribute(name = "tacoOrder")
     public @NotNull TacoOrder order() {
         TacoOrder res = new TacoOrder();
-        log.info(">>> {}.order(): new empty {} created",
-                Helpers.makeLocator(this),
-                Helpers.makeLocator(res));
+        if (log.isDebugEnabled()) {
+            log.debug(">>> {}.order(): new empty {} created",
+                    Helpers.makeLocator(this),
+                    Helpers.makeLocator(res));
+        }
         return res;
     }
 
@@ -62,9 +86,11 @@ public class DesignTacoController {
     @ModelAttribute(name = "taco")
     public @NotNull Taco taco() {
         Taco res = new Taco();
-        log.info(">>> {}.taco(): new {} created",
-                Helpers.makeLocator(this),
-                Helpers.makeLocator(res));
+        if (log.isDebugEnabled()) {
+            log.debug(">>> {}.taco(): new {} created",
+                    Helpers.makeLocator(this),
+                    Helpers.makeLocator(res));
+        }
         return res;
     }
 
@@ -74,11 +100,23 @@ public class DesignTacoController {
 
     // ----------------------
     // Handle GET.
+    //
+    // The form shows a new, empty taco, so the page only depends on the catalog (and the
+    // templates). If the client's copy is current (see PageETags), answer 304 without rendering.
+    // The ETag is computed from the snapshot that addIngredientsToModel() has put into the
+    // model, so it matches the page even if the catalog has been swapped since.
     // ----------------------
 
     @GetMapping
-    public @NotNull String showDesignForm() {
-        log.info(">>> {}.showDesignForm()", Helpers.makeLocator(this));
+    public @Nullable String showDesignForm(@NotNull WebRequest request, @NotNull Model model) {
+        if (log.isDebugEnabled()) {
+            log.debug(">>> {}.showDesignForm()", Helpers.makeLocator(this));
+        }
+        final IngredientRelation relation = (IngredientRelation) model.getAttribute(relationAttribute);
+        assert relation != null;
+        if (pageETags.checkNotModified(request, relation)) {
+            return null;
+        }
         return "design";
     }
 
@@ -110,8 +148,10 @@ public class DesignTacoController {
             @NotNull @Valid Taco taco,
             @NotNull Errors errors,
             @ModelAttribute @NotNull TacoOrder tacoOrder) {
-        log.info(">>> {}.processTaco()", Helpers.makeLocator(this));
-        return Common.processTaco(taco, errors, tacoOrder);
+        if (log.isDebugEnabled()) {
+            log.debug(">>> {}.processTaco()", Helpers.makeLocator(this));
+        }
+        return Common.processTaco(taco, errors, tacoOrder, coOccurrence);
     }
 
 }
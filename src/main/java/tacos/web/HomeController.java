@@ -1,14 +1,28 @@
 package tacos.web;
 
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.context.request.WebRequest;
+import tacos.web.common.PageETags;
 
 @Controller
 public class HomeController {
 
+    private final PageETags pageETags;
+
+    public HomeController(@NotNull PageETags pageETags) {
+        this.pageETags = pageETags;
+    }
+
+    // The home page is the same for everybody; 304 if the client's copy is current
+
     @GetMapping("/")
-    public String home() {
+    public @Nullable String home(@NotNull WebRequest request) {
+        if (pageETags.checkNotModified(request)) {
+            return null;
+        }
         return "home";
     }
 }
-
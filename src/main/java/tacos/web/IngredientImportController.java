@@ -0,0 +1,66 @@
+package tacos.web;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import tacos.jdbc.IngredientImporter;
+import tacos.model.helpers.Helpers;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+// ---
+// Bulk import of ingredients (see IngredientImporter). The request body is streamed.
+// e.g. curl -H 'Content-Type: text/csv' --data-binary @supplier.csv http://localhost:8080/ingredients/import
+// Answers with a one-line plaintext summary; 400 if the input is bad (then nothing has been imported).
+//
+// The endpoint changes the catalog and there is no authentication in this application, so
+// it only exists with "tacos.ingredients.import-enabled: true" (off by default). Switch it on
+// only where the port is reachable by the people who maintain the catalog, and nobody else.
+// ---
+
+@Slf4j
+@ConditionalOnProperty(name = "tacos.ingredients.import-enabled", havingValue = "true")
+@Controller // Spring will create an instance of this class in the Spring application context at scan time
+@RequestMapping("/ingredients") // Kind of requests that this controller handles
+public class IngredientImportController {
+
+    private final IngredientImporter importer;
+
+    public IngredientImportController(@NotNull IngredientImporter importer) {
+        this.importer = importer;
+        log.info(">>> {} created", Helpers.makeLocator(this));
+    }
+
+    @PostMapping(path = "/import", consumes = "text/csv")
+    public ResponseEntity<String> importCsv(@NotNull InputStream body) throws IOException {
+        try {
+            return imported(importer.importCsv(body));
+        } catch (IllegalArgumentException ex) {
+            return rejected(ex);
+        }
+    }
+
+    @PostMapping(path = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> importJson(@NotNull InputStream body) throws IOException {
+        try {
+            return imported(importer.importJson(body));
+        } catch (IllegalArgumentException ex) {
+            return rejected(ex);
+        }
+    }
+
+    private static @NotNull ResponseEntity<String> imported(long count) {
+        return ResponseEntity.ok().contentType(MediaType.TEXT_PLAIN).body("Imported " + count + " ingredients\n");
+    }
+
+    private @NotNull ResponseEntity<String> rejected(@NotNull Exception ex) {
+        log.info(">>> {} import rejected: {}", Helpers.makeLocator(this), ex.getMessage());
+        return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN).body("Nothing imported: " + ex.getMessage() + "\n");
+    }
+}
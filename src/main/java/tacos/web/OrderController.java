@@ -1,13 +1,17 @@
 package tacos.web;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.Errors;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.bind.support.SessionStatus;
+import tacos.jdbc.OrderWriteBehindQueue;
 import tacos.model.helpers.ErrorPrinter;
 import tacos.model.helpers.Helpers;
 import tacos.model.taco.TacoOrder;
@@ -22,7 +26,12 @@ import tacos.model.taco.TacoOrder;
 @SessionAttributes("tacoOrder") // The bean stored under "tacoOrder" has session scope (is retained between requests)
 public class OrderController {
 
-    public OrderController() {
+    private final OrderWriteBehindQueue orderQueue;
+
+    // "orderQueue" is constructor-injected at scan time. It saves through the OrderRepository (Chapter 3.1.4)
+
+    public OrderController(@NotNull OrderWriteBehindQueue orderQueue) {
+        this.orderQueue = orderQueue;
         log.info(">>> {} created", Helpers.makeLocator(this));
     }
 
@@ -34,9 +43,11 @@ public class OrderController {
     @ModelAttribute(name = "tacoOrder")
     public @NotNull TacoOrder order() {
         TacoOrder res = new TacoOrder();
-        log.info(">>> {}.order(): new empty {} created",
-                Helpers.makeLocator(this),
-                Helpers.makeLocator(res));
+        if (log.isDebugEnabled()) {
+            log.debug(">>> {}.order(): new empty {} created",
+                    Helpers.makeLocator(this),
+                    Helpers.makeLocator(res));
+        }
         return res;
     }
 
@@ -44,9 +55,11 @@ public class OrderController {
 
     @ModelAttribute
     public void dummyCall(@NotNull Model model) {
-        log.info(">>> {}.dummyCall() called with Model {}",
-                Helpers.makeLocator(this),
-                Helpers.makeLocator(model));
+        if (log.isDebugEnabled()) {
+            log.debug(">>> {}.dummyCall() called with Model {}",
+                    Helpers.makeLocator(this),
+                    Helpers.makeLocator(model));
+        }
     }
 
     // ------------------------------------------------------------
@@ -58,24 +71,39 @@ public class OrderController {
     // "Errors" must be declared immediately after the "TacoOrder" one gets an internal server error.
     // ----------------------
 
+    // The order is saved asynchronously (see OrderWriteBehindQueue). What is queued is a copy:
+    // the writer thread works on it while the TacoOrder in the session may still be bound to
+    // by another request (a resubmit) until the session attribute is removed. If the queue is
+    // full, the form is shown again with status 503 and the order stays in the session, so
+    // that it can be resubmitted.
+
     @PostMapping
-    public String processOrder(@NotNull @Valid TacoOrder tacoOrder, @NotNull Errors errors, @NotNull SessionStatus sessionStatus) {
-        log.info(">>> {}.processOrder()", Helpers.makeLocator(this));
-        log.info(">>>>>> 'tacoOrder' argument is {}", Helpers.makeLocator(tacoOrder));
-        final int indentCount = 3;
-        if (errors.hasErrors()) {
-            log.info(">>>>>> 'errors' argument is {}", Helpers.makeLocator(errors));
-            log.info(">>>>>> errors detail");
-            String err = ErrorPrinter.printErrors(errors, indentCount);
-            log.info(Helpers.indent(err, indentCount));
+    public String processOrder(@NotNull @Valid TacoOrder tacoOrder, @NotNull Errors errors, @NotNull SessionStatus sessionStatus,
+                               @NotNull HttpServletResponse response) {
+        if (log.isDebugEnabled()) {
+            log.debug(">>> {}.processOrder()", Helpers.makeLocator(this));
+            log.debug(">>>>>> 'tacoOrder' argument is {}", Helpers.makeLocator(tacoOrder));
+            if (errors.hasErrors()) {
+                final int indentCount = 3;
+                log.debug(">>>>>> 'errors' argument is {}", Helpers.makeLocator(errors));
+                log.debug(">>>>>> errors detail");
+                String err = ErrorPrinter.printErrors(errors, indentCount);
+                log.debug(Helpers.indent(err, indentCount));
+            }
         }
         if (errors.hasErrors()) {
             // Just redisplay the order form with the TacoOrder already set up.
             // The form will display all the errors in the "Fields" class available to Thymeleaf.
             return "orderForm";
+        } else if (!orderQueue.offer(tacoOrder.copy())) {
+            errors.reject("busy", "We are very busy right now. Please submit your order again in a moment.");
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            return "orderForm";
         } else {
-            // Clean up session and be ready for a new order (i.e. the TacoOrder
-            // instance is dropped from the session-scoped model)
+            // Queued for saving. Clean up session and be ready for a new order
+            // (i.e. the TacoOrder instance is dropped from the session-scoped model)
+            log.debug(">>>>>> order queued for saving");
             sessionStatus.setComplete();
             return "redirect:/";
         }
@@ -87,7 +115,9 @@ public class OrderController {
 
     @GetMapping("/current")
     public @NotNull String orderForm(@NotNull @ModelAttribute TacoOrder order) {
-        log.info(">>> {}.orderForm() called with {}", Helpers.makeLocator(this), Helpers.makeLocator(order));
+        if (log.isDebugEnabled()) {
+            log.debug(">>> {}.orderForm() called with {}", Helpers.makeLocator(this), Helpers.makeLocator(order));
+        }
         return "orderForm";
     }
 }
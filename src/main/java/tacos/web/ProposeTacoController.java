@@ -8,16 +8,12 @@ import org.springframework.ui.Model;
 import org.springframework.validation.Errors;
 import org.springframework.web.bind.annotation.*;
 import tacos.model.helpers.Helpers;
-import tacos.model.ingredients.Ingredient;
-import tacos.model.ingredients.IngredientType;
-import tacos.model.ingredients.IngredientRelation;
-import tacos.model.ingredients.IngredientsSource;
+import tacos.model.ingredients.IngredientCatalog;
 import tacos.model.taco.Taco;
 import tacos.model.taco.TacoOrder;
 import tacos.web.common.Common;
-
-import java.util.*;
-import java.util.stream.Collectors;
+import tacos.web.common.IngredientCoOccurrence;
+import tacos.web.common.TacoProposer;
 
 @Slf4j
 @Controller // Spring will create an instance of this class in the Spring application context at scan time
@@ -25,15 +21,26 @@ import java.util.stream.Collectors;
 @SessionAttributes("tacoOrder") // The bean stored under "tacoOrder" has session scope (is retained between requests)
 public class ProposeTacoController {
 
-    private final static Random rand = new Random();
+    private final IngredientCatalog ingredientCatalog;
+
+    // Draws the random ingredients and name (see TacoProposer)
+
+    private final TacoProposer tacoProposer;
+
+    // Counts accepted tacos, which in turn weights the proposals
 
-    private final IngredientRelation ingredientRelation;
+    private final IngredientCoOccurrence coOccurrence;
 
-    public ProposeTacoController(@NotNull IngredientsSource ingredientSource) {
-        this.ingredientRelation = ingredientSource.refresh();
-        log.info(">>> {} created with ingredientRelation {}",
+    public ProposeTacoController(
+            @NotNull IngredientCatalog ingredientCatalog,
+            @NotNull TacoProposer tacoProposer,
+            @NotNull IngredientCoOccurrence coOccurrence) {
+        this.ingredientCatalog = ingredientCatalog;
+        this.tacoProposer = tacoProposer;
+        this.coOccurrence = coOccurrence;
+        log.info(">>> {} created with ingredientCatalog {}",
                 Helpers.makeLocator(this),
-                Helpers.makeLocator(ingredientRelation));
+                Helpers.makeLocator(ingredientCatalog));
     }
 
     // Filling the "Session Model" so that the "ingredients" are
@@ -41,7 +48,7 @@ public class ProposeTacoController {
 
     @ModelAttribute
     public void addIngredientsToModel(@NotNull Model model) {
-        Common.addIngredientsToModel(this, model, ingredientRelation);
+        Common.addIngredientsToModel(this, model, ingredientCatalog.get());
     }
 
     // Obtain a new, empty TacoOrder instance for insertion into the model.
@@ -51,80 +58,43 @@ public class ProposeTacoController {
     @ModelAttribute(name = "tacoOrder")
     public @NotNull TacoOrder order() {
         TacoOrder res = new TacoOrder();
-        log.info(">>> {}.order(): new empty {} created",
-                Helpers.makeLocator(this),
-                Helpers.makeLocator(res));
+        if (log.isDebugEnabled()) {
+            log.debug(">>> {}.order(): new empty {} created",
+                    Helpers.makeLocator(this),
+                    Helpers.makeLocator(res));
+        }
         return res;
     }
 
     // Obtain a new, randomly filled Taco instance for insertion into the model.
     // It is actually dangerous to name a method "taco" - IDE autcompletion
     // may write "taco()." instead of "taco." ...
+    // The name is not one of those already in the session's TacoOrder (Spring calls
+    // order() first if there is no TacoOrder yet).
 
     @ModelAttribute(name = "taco")
-    public @NotNull Taco taco() {
+    public @NotNull Taco taco(@ModelAttribute("tacoOrder") @NotNull TacoOrder tacoOrder) {
         Taco res = new Taco();
-        res.setIngredients(proposeIngredients());
-        res.setName(proposeName());
-        log.info(">>> {}.taco(): new {} created",
-                Helpers.makeLocator(this),
-                Helpers.makeLocator(res));
-        log.info(res.toDetailedString()); // prints taco details
-        return res;
-    }
-
-    private @NotNull Set<Ingredient> proposeIngredients() {
-        final List<IngredientType> types = ingredientRelation.getTypesOccurring();
-        final Set<Ingredient> res = new HashSet<>();
-        for (IngredientType type : types) {
-            final List<Ingredient> available = new ArrayList<>(ingredientRelation.getByType(type));
-            final int atMost = type.isExclusive() ? 1 : available.size();
-            final int atLeast = type.isMandatory() ? 1 : 0;
-            assert atLeast <= atMost && atMost <= available.size();
-            final int howMany = atLeast + rand.nextInt(atMost - atLeast + 1);
-            assert atLeast <= howMany && howMany <= atMost;
-            // shuffle the ingredients in place and select the "howMany" first
-            Collections.shuffle(available);
-            Set<Ingredient> forThisType = available.stream().limit(howMany).collect(Collectors.toSet());
-            res.addAll(forThisType);
+        res.setIngredients(tacoProposer.proposeIngredients());
+        res.setName(tacoProposer.proposeName(tacoOrder.getTacoNames()));
+        if (log.isDebugEnabled()) {
+            log.debug(">>> {}.taco(): new {} created",
+                    Helpers.makeLocator(this),
+                    Helpers.makeLocator(res));
+            log.debug(res.toDetailedString()); // prints taco details
         }
         return res;
     }
 
-    private static @NotNull String proposeName() {
-        final String[] names = new String[]{
-                "Jester",
-                "Touchdown",
-                "Steamroller",
-                "Clean Slate",
-                "Boomstick",
-                "Beanstalk",
-                "Elephant",
-                "Brown Garden",
-                "Desert Avalanche",
-                "Pink Rhino",
-                "Hotcake",
-                "Pigstick",
-                "Dreamstate",
-                "Surprise Party",
-                "Resurrection",
-                "Lunar Eclipse",
-                "Snowslide",
-                "Jungle Citadel",
-                "Ocean Rhino",
-                "Hammer"};
-        final int randomInt = rand.nextInt(99) + 1;
-        final String randomName = names[rand.nextInt(names.length)];
-        return randomName + " " + randomInt;
-    }
-
     // ------------------------------------------------------------
     // Request handling below. The initial path has been given by the class annotation @RequestMapping
     // ------------------------------------------------------------
 
     @GetMapping
     public @NotNull String showDesignForm() {
-        log.info(">>> {}.showDesignForm()", Helpers.makeLocator(this));
+        if (log.isDebugEnabled()) {
+            log.debug(">>> {}.showDesignForm()", Helpers.makeLocator(this));
+        }
         return "design";
     }
 
@@ -133,8 +103,10 @@ public class ProposeTacoController {
             @NotNull @Valid Taco taco,
             @NotNull Errors errors,
             @ModelAttribute @NotNull TacoOrder tacoOrder) {
-        log.info(">>> {}.processTaco()", Helpers.makeLocator(this));
-        return Common.processTaco(taco, errors, tacoOrder);
+        if (log.isDebugEnabled()) {
+            log.debug(">>> {}.processTaco()", Helpers.makeLocator(this));
+        }
+        return Common.processTaco(taco, errors, tacoOrder, coOccurrence);
     }
 
 }
@@ -0,0 +1,57 @@
+package tacos.web;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.boot.autoconfigure.web.WebProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+import tacos.model.helpers.Helpers;
+
+import java.time.Duration;
+
+// ---
+// Static resources in the "prod" profile (see application-prod.yml).
+//
+// Spring Boot would set up the same handler from the "spring.web.resources" properties,
+// but its Cache-Control cannot say "immutable". With content-hashed URLs, the browser
+// need not even revalidate on reload, so the handler for "/**" is registered here instead,
+// from the same properties. Running first (highest precedence) makes Boot skip its own.
+// ---
+
+@Slf4j
+@Configuration
+@Profile("prod")
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class StaticResourceConfig implements WebMvcConfigurer {
+
+    private final WebProperties.Resources resources;
+
+    public StaticResourceConfig(@NotNull WebProperties webProperties) {
+        this.resources = webProperties.getResources();
+        log.info(">>> {} created", Helpers.makeLocator(this));
+    }
+
+    @Override
+    public void addResourceHandlers(@NotNull ResourceHandlerRegistry registry) {
+        final Duration period = resources.getCache().getPeriod();
+        final CacheControl cacheControl = (period == null)
+                ? CacheControl.noCache()
+                : CacheControl.maxAge(period).cachePublic().immutable();
+        final WebProperties.Resources.Chain.Strategy.Content content = resources.getChain().getStrategy().getContent();
+        final VersionResourceResolver versionResolver = new VersionResourceResolver();
+        if (content.isEnabled()) {
+            versionResolver.addContentVersionStrategy(content.getPaths());
+        }
+        registry.addResourceHandler("/**")
+                .addResourceLocations(resources.getStaticLocations())
+                .setCacheControl(cacheControl)
+                .resourceChain(resources.getChain().isCache())
+                .addResolver(versionResolver);
+    }
+}
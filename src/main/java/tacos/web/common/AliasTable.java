@@ -0,0 +1,90 @@
+package tacos.web.common;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.random.RandomGenerator;
+
+// ---
+// Walker's alias method, with Vose's construction: after O(n) preparation, drawing an index
+// with probability proportional to its weight takes one random int and one random double,
+// whatever the number of weights.
+//
+// Negative, NaN and infinite weights count as zero. If all weights are zero, the draw is
+// uniform, so that there is always something to draw.
+// ---
+
+final class AliasTable {
+
+    private final double[] probability;
+
+    private final int[] alias;
+
+    private AliasTable(double[] probability, int[] alias) {
+        this.probability = probability;
+        this.alias = alias;
+    }
+
+    static @NotNull AliasTable of(@NotNull double[] weights) {
+        final int n = weights.length;
+        if (n == 0) {
+            throw new IllegalArgumentException("No weights");
+        }
+        final double[] scaled = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            final double w = weights[i];
+            scaled[i] = (w > 0 && w < Double.POSITIVE_INFINITY) ? w : 0;
+            sum += scaled[i];
+        }
+        for (int i = 0; i < n; i++) {
+            scaled[i] = (sum > 0) ? scaled[i] * n / sum : 1;
+        }
+        // Pair each "small" column (below 1) with a "large" one that tops it up
+        final double[] probability = new double[n];
+        final int[] alias = new int[n];
+        final int[] small = new int[n];
+        final int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            if (scaled[i] < 1) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            final int s = small[--smallCount];
+            final int l = large[--largeCount];
+            probability[s] = scaled[s];
+            alias[s] = l;
+            scaled[l] = (scaled[l] + scaled[s]) - 1;
+            if (scaled[l] < 1) {
+                small[smallCount++] = l;
+            } else {
+                large[largeCount++] = l;
+            }
+        }
+        // What's left is 1 up to rounding errors
+        while (largeCount > 0) {
+            final int l = large[--largeCount];
+            probability[l] = 1;
+            alias[l] = l;
+        }
+        while (smallCount > 0) {
+            final int s = small[--smallCount];
+            probability[s] = 1;
+            alias[s] = s;
+        }
+        return new AliasTable(probability, alias);
+    }
+
+    int size() {
+        return probability.length;
+    }
+
+    int sample(@NotNull RandomGenerator random) {
+        final int i = random.nextInt(probability.length);
+        return (random.nextDouble() < probability[i]) ? i : alias[i];
+    }
+}
@@ -8,53 +8,50 @@ import org.springframework.validation.Errors;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import tacos.model.helpers.ErrorPrinter;
 import tacos.model.helpers.Helpers;
-import tacos.model.ingredients.Ingredient;
-import tacos.model.ingredients.IngredientType;
 import tacos.model.ingredients.IngredientRelation;
 import tacos.model.taco.Taco;
 import tacos.model.taco.TacoOrder;
 
-import java.util.Collections;
-import java.util.Set;
-
 import static tacos.model.helpers.Helpers.indent;
 
 @Slf4j
 public class Common {
 
+    // The attributes are the same for every request until the catalog changes, so they
+    // have been computed once by the relation: lowercase type name (the Thymeleaf template
+    // contains "${cheese}", "${veggies}" etc.) to the unmodifiable list of ingredients of
+    // that type, sorted by name. They go into the model in one step.
+
     public static void addIngredientsToModel(
             @NotNull Object controller,
             @NotNull Model model,
             @NotNull IngredientRelation relation) {
-        log.info(">>> {}.addIngredientsToModel() called with Model {}",
-                Helpers.makeLocator(controller),
-                Helpers.makeLocator(model));
-        for (IngredientType type : relation.getTypesOccurring()) {
-            // Instead of ".toString().toLowercase()" use ".name().toLowercase()".
-            // Lower-casing is needed because the Thymeleaf template contains the
-            // type names in lowercase: "${cheese}", "${veggies}" etc.
-            // Otherwise there will be no match
-            final String attributeName = type.name().toLowerCase();
-            final Set<Ingredient> attributeValue = Collections.unmodifiableSet(relation.getByType(type));
-            assert model.getAttribute(attributeName) == null : "Not yet stored in model";
-            model.addAttribute(attributeName, attributeValue);
+        if (log.isDebugEnabled()) {
+            log.debug(">>> {}.addIngredientsToModel() called with Model {}",
+                    Helpers.makeLocator(controller),
+                    Helpers.makeLocator(model));
         }
+        model.addAllAttributes(relation.getByTypeName());
     }
 
-    // POST processing from DesignTacoController or ProposeTacoController
+    // POST processing from DesignTacoController or ProposeTacoController.
+    // An accepted taco is also counted in the IngredientCoOccurrence.
 
     public static @NotNull String processTaco(
             @NotNull @Valid Taco taco,
             @NotNull Errors errors,
-            @ModelAttribute @NotNull TacoOrder tacoOrder) {
-        log.info(">>>>>> 'taco' argument is {}", Helpers.makeLocator(taco));
-        log.info(">>>>>> {}", taco.toDetailedString());
-        log.info(">>>>>> 'tacoOrder' argument is {}", Helpers.makeLocator(tacoOrder));
-        if (errors.hasErrors()) {
-            log.info(">>>>>> 'errors' argument is {}", Helpers.makeLocator(errors));
-            log.info(">>>>>> errors detail");
-            String err = ErrorPrinter.printErrors(errors, Helpers.usualIndentCount);
-            log.info(indent(err));
+            @ModelAttribute @NotNull TacoOrder tacoOrder,
+            @NotNull IngredientCoOccurrence coOccurrence) {
+        if (log.isDebugEnabled()) {
+            log.debug(">>>>>> 'taco' argument is {}", Helpers.makeLocator(taco));
+            log.debug(">>>>>> {}", taco.toDetailedString());
+            log.debug(">>>>>> 'tacoOrder' argument is {}", Helpers.makeLocator(tacoOrder));
+            if (errors.hasErrors()) {
+                log.debug(">>>>>> 'errors' argument is {}", Helpers.makeLocator(errors));
+                log.debug(">>>>>> errors detail");
+                String err = ErrorPrinter.printErrors(errors, Helpers.usualIndentCount);
+                log.debug(indent(err));
+            }
         }
         if (errors.hasErrors()) {
             return "design";
@@ -62,6 +59,7 @@ public class Common {
             // TODO: Check whether there is a name clash
             // This is a validation that cannot be done on the bean alone. How do you it?
             tacoOrder.addTaco(taco);
+            coOccurrence.record(taco.getIngredients());
             return "redirect:/orders/current";
         }
     }
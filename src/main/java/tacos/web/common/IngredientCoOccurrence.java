@@ -0,0 +1,225 @@
+package tacos.web.common;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tacos.model.helpers.Helpers;
+import tacos.model.ingredients.Ingredient;
+import tacos.model.ingredients.IngredientSet;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+// ---
+// How often ingredients have been ordered together: a co-occurrence matrix indexed by
+// ingredient ordinal, fed with every taco accepted by Common.processTaco(). The diagonal
+// holds how often each ingredient has been ordered at all.
+//
+// Recording must not slow down the POST, so it takes no lock: each cell of the matrix is a
+// LongAdder, which stripes its count over several cells as soon as requests contend on it,
+// and recording a taco just increments the cells of its pairs. Nothing is queued or
+// allocated per taco. The matrix is triangular, with one row per ordinal seen so far; a row
+// is created, and the array of rows replaced by a larger one through a CAS, only when an
+// ingredient is ordered for the first time. The rows themselves are shared by all versions
+// of that array, so an increment through an outdated array is not lost.
+//
+// Every "merge-period-ms", merge() reads the rows that have been touched since the previous
+// merge and publishes an immutable Snapshot of the matrix, sharing the untouched rows with
+// the previous Snapshot. The counts are cumulative, so nothing is reset and no monitor is
+// held; a second merge() while one is running just returns. If "popularity-weights" is on,
+// the Snapshot goes to the TacoProposer as its IngredientWeights, which builds its alias
+// tables right away, on the merging thread: an ingredient is weighted with one plus how
+// often it has been ordered together with the anchor (the wrap), so that ingredients never
+// ordered are still proposed now and then.
+//
+// For n ingredients, the matrix takes n * (n + 1) / 2 LongAdders, each a small object until
+// it sees contention.
+// ---
+
+@Slf4j
+@Component
+public class IngredientCoOccurrence {
+
+    private final TacoProposer tacoProposer;
+
+    private final boolean popularityWeights;
+
+    // Row i holds the counts for ordinals (i, 0) to (i, i). "touched" is set by record()
+    // after counting, and cleared by merge() before reading the counts, so an increment is
+    // either read by the merge that clears the flag or flags the row for the next one.
+
+    private static final class Row {
+
+        final LongAdder[] counts;
+
+        final AtomicBoolean touched = new AtomicBoolean();
+
+        Row(int ordinal) {
+            counts = new LongAdder[ordinal + 1];
+            for (int j = 0; j <= ordinal; j++) {
+                counts[j] = new LongAdder();
+            }
+        }
+    }
+
+    private final AtomicReference<Row[]> rows = new AtomicReference<>(new Row[0]);
+
+    private final LongAdder tacos = new LongAdder();
+
+    private final AtomicBoolean merging = new AtomicBoolean();
+
+    private volatile Snapshot snapshot = new Snapshot(new long[0][], 0);
+
+    public IngredientCoOccurrence(
+            @NotNull TacoProposer tacoProposer,
+            @Value("${tacos.propose.popularity-weights:true}") boolean popularityWeights) {
+        this.tacoProposer = tacoProposer;
+        this.popularityWeights = popularityWeights;
+        log.info(">>> {} created with tacoProposer {}, popularity weights {}",
+                Helpers.makeLocator(this),
+                Helpers.makeLocator(tacoProposer),
+                popularityWeights ? "on" : "off");
+    }
+
+    // Called on the request thread; lock-free. An IngredientSet (what a Taco holds) is walked
+    // by ordinal, without an Iterator or any other allocation.
+
+    public void record(@NotNull Set<Ingredient> ingredients) {
+        if (ingredients.isEmpty()) {
+            return;
+        }
+        final IngredientSet set = (ingredients instanceof IngredientSet ingredientSet)
+                ? ingredientSet
+                : IngredientSet.copyOf(ingredients);
+        int max = -1;
+        for (int a = set.nextOrdinal(0); a >= 0; a = set.nextOrdinal(a + 1)) {
+            max = a;
+        }
+        final Row[] current = rowsUpTo(max);
+        for (int a = set.nextOrdinal(0); a >= 0; a = set.nextOrdinal(a + 1)) {
+            final LongAdder[] counts = current[a].counts;
+            for (int b = set.nextOrdinal(0); b >= 0 && b <= a; b = set.nextOrdinal(b + 1)) {
+                counts[b].increment();
+            }
+        }
+        for (int a = set.nextOrdinal(0); a >= 0; a = set.nextOrdinal(a + 1)) {
+            final AtomicBoolean touched = current[a].touched;
+            if (!touched.get()) {
+                touched.set(true);
+            }
+        }
+        tacos.increment();
+    }
+
+    // The rows, grown to include "ordinal" if need be
+
+    private @NotNull Row[] rowsUpTo(int ordinal) {
+        while (true) {
+            final Row[] current = rows.get();
+            if (ordinal < current.length) {
+                return current;
+            }
+            final Row[] grown = new Row[ordinal + 1];
+            System.arraycopy(current, 0, grown, 0, current.length);
+            for (int i = current.length; i < grown.length; i++) {
+                grown[i] = new Row(i);
+            }
+            if (rows.compareAndSet(current, grown)) {
+                return grown;
+            }
+        }
+    }
+
+    public @NotNull Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    @Scheduled(
+            initialDelayString = "${tacos.propose.merge-period-ms:10000}",
+            fixedDelayString = "${tacos.propose.merge-period-ms:10000}")
+    public void merge() {
+        if (!merging.compareAndSet(false, true)) {
+            return; // another merge is running
+        }
+        try {
+            // Read the number of tacos first: the counts read below include at least those
+            final long tacoCount = tacos.sum();
+            final Snapshot previous = snapshot;
+            if (tacoCount == previous.tacos) {
+                return;
+            }
+            final Row[] current = rows.get();
+            final long[][] copy = new long[current.length][];
+            int copied = 0;
+            for (int i = 0; i < current.length; i++) {
+                final Row row = current[i];
+                final boolean touched = row.touched.getAndSet(false);
+                if (touched || i >= previous.rows.length) {
+                    final long[] counts = new long[i + 1];
+                    for (int j = 0; j <= i; j++) {
+                        counts[j] = row.counts[j].sum();
+                    }
+                    copy[i] = counts;
+                    copied++;
+                } else {
+                    copy[i] = previous.rows[i];
+                }
+            }
+            snapshot = new Snapshot(copy, tacoCount);
+            if (popularityWeights) {
+                tacoProposer.setWeights(snapshot);
+            }
+            log.debug("Merged {} tacos into the co-occurrence matrix ({} tacos, {} ingredients, {} rows copied)",
+                    tacoCount - previous.tacos, tacoCount, current.length, copied);
+        } finally {
+            merging.set(false);
+        }
+    }
+
+    // ---
+    // The matrix as of one merge; immutable
+    // ---
+
+    public static final class Snapshot implements IngredientWeights {
+
+        private final long[][] rows;
+
+        private final long tacos;
+
+        private Snapshot(@NotNull long[][] rows, long tacos) {
+            this.rows = rows;
+            this.tacos = tacos;
+        }
+
+        // Number of tacos merged so far
+
+        public long getTacos() {
+            return tacos;
+        }
+
+        public long count(@NotNull Ingredient a, @NotNull Ingredient b) {
+            final int i = Math.max(a.getOrdinal(), b.getOrdinal());
+            final int j = Math.min(a.getOrdinal(), b.getOrdinal());
+            return (i < rows.length) ? rows[i][j] : 0;
+        }
+
+        @Override
+        public double weight(@NotNull Ingredient ingredient) {
+            return 1.0 + count(ingredient, ingredient);
+        }
+
+        @Override
+        public double weight(@NotNull Ingredient anchor, @NotNull Ingredient ingredient) {
+            return 1.0 + count(anchor, ingredient);
+        }
+
+        @Override
+        public boolean isConditional() {
+            return true;
+        }
+    }
+}
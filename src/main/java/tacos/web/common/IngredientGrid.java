@@ -0,0 +1,147 @@
+package tacos.web.common;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.HtmlUtils;
+import tacos.model.helpers.Helpers;
+import tacos.model.ingredients.Ingredient;
+import tacos.model.ingredients.IngredientCatalog;
+import tacos.model.ingredients.IngredientRelation;
+import tacos.model.ingredients.IngredientSet;
+import tacos.model.taco.Taco;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// ---
+// Rendered-fragment cache for the ingredient checkboxes of "design.html".
+//
+// For each ingredient group, the markup that Thymeleaf would produce with "th:each" and
+// "th:field" is rendered once per catalog snapshot, split at the places where a
+// ' checked="checked"' may go. Rendering for a given taco then just concatenates the pieces,
+// checking the bits of the taco's IngredientSet. The template calls this as
+// "${@ingredientGrid.render(taco, wrap)}", passing the list from the model, which is the
+// list precomputed by the IngredientRelation (see IngredientRelation.getByTypeName()), so
+// its identity tells which snapshot and group it belongs to.
+//
+// Names and ids are HTML-escaped, as Thymeleaf does for "th:text" and "th:value".
+// With "tacos.web.grid-cache: false", the template falls back to plain Thymeleaf.
+// ---
+
+@Slf4j
+@Component("ingredientGrid") // Named for use in templates as "@ingredientGrid"
+public class IngredientGrid {
+
+    private final static String checked = " checked=\"checked\"";
+
+    // The markup of one group, with "ordinals[i]" deciding whether "checked" goes
+    // between "pieces[i]" and "pieces[i + 1]"
+
+    private record Group(@NotNull String[] pieces, @NotNull int[] ordinals, int length) {
+    }
+
+    // All the groups of one snapshot, by identity of the list handed out by the relation
+
+    private record Groups(@NotNull IngredientRelation relation, @NotNull Map<List<Ingredient>, Group> byList) {
+    }
+
+    private final IngredientCatalog ingredientCatalog;
+
+    private volatile boolean enabled;
+
+    private volatile Groups groups;
+
+    public IngredientGrid(
+            @NotNull IngredientCatalog ingredientCatalog,
+            @Value("${tacos.web.grid-cache:true}") boolean enabled) {
+        this.ingredientCatalog = ingredientCatalog;
+        this.enabled = enabled;
+        log.info(">>> {} created, enabled: {}", Helpers.makeLocator(this), enabled);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Can be switched at runtime, e.g. to compare with what Thymeleaf renders
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    // The checkboxes for "ingredients", checked according to "taco".
+    // "ingredients" is null if there are no ingredients of that type (there is no model attribute).
+
+    public @NotNull String render(@Nullable Taco taco, @Nullable List<Ingredient> ingredients) {
+        if (ingredients == null) {
+            return "";
+        }
+        final Group group = findGroup(ingredients);
+        final Set<Ingredient> tacoIngredients = (taco == null) ? null : taco.getIngredients();
+        final StringBuilder buf = new StringBuilder(group.length + group.ordinals.length * checked.length());
+        buf.append(group.pieces[0]);
+        for (int i = 0; i < group.ordinals.length; i++) {
+            if (isChecked(tacoIngredients, group.ordinals[i])) {
+                buf.append(checked);
+            }
+            buf.append(group.pieces[i + 1]);
+        }
+        return buf.toString();
+    }
+
+    private static boolean isChecked(@Nullable Set<Ingredient> tacoIngredients, int ordinal) {
+        if (tacoIngredients instanceof IngredientSet ingredientSet) {
+            return ingredientSet.containsOrdinal(ordinal);
+        }
+        // Taco.setIngredients() always makes an IngredientSet, but just in case
+        return tacoIngredients != null && tacoIngredients.stream().anyMatch(ingredient -> ingredient.getOrdinal() == ordinal);
+    }
+
+    // The lists of the current snapshot are found in the cache. A list from an older snapshot
+    // (the catalog was swapped during the request) is rendered without caching.
+
+    private @NotNull Group findGroup(@NotNull List<Ingredient> ingredients) {
+        Groups current = groups;
+        if (current == null || current.relation != ingredientCatalog.get()) {
+            current = buildGroups(ingredientCatalog.get());
+            groups = current;
+        }
+        final Group res = current.byList.get(ingredients);
+        return (res != null) ? res : buildGroup(ingredients);
+    }
+
+    private @NotNull Groups buildGroups(@NotNull IngredientRelation relation) {
+        final Map<List<Ingredient>, Group> byList = new IdentityHashMap<>();
+        relation.getByTypeName().values().forEach(list -> byList.put(list, buildGroup(list)));
+        log.info(">>> {} rendered {} ingredient groups for {}", Helpers.makeLocator(this), byList.size(), Helpers.makeLocator(relation));
+        return new Groups(relation, byList);
+    }
+
+    // Same markup as the "th:each" in "fragments/ingredientGroup.html", minus the whitespace
+
+    private static @NotNull Group buildGroup(@NotNull List<Ingredient> ingredients) {
+        final String[] pieces = new String[ingredients.size() + 1];
+        final int[] ordinals = new int[ingredients.size()];
+        int length = 0;
+        String before = "";
+        for (int i = 0; i < ingredients.size(); i++) {
+            final Ingredient ingredient = ingredients.get(i);
+            final String id = HtmlUtils.htmlEscape(ingredient.getId().getRaw());
+            final String name = HtmlUtils.htmlEscape(ingredient.getName());
+            pieces[i] = before
+                    + "<div>\n<input type=\"checkbox\" value=\"" + id + "\" id=\"" + id + "\" name=\"ingredients\"";
+            ordinals[i] = ingredient.getOrdinal();
+            before = "/><input type=\"hidden\" name=\"_ingredients\" value=\"on\"/>\n"
+                    + "<label for=\"" + id + "\">" + name + "</label>\n</div>\n";
+            length += pieces[i].length();
+        }
+        pieces[ingredients.size()] = before;
+        length += before.length();
+        return new Group(pieces, ordinals, length);
+    }
+}
@@ -0,0 +1,31 @@
+package tacos.web.common;
+
+import org.jetbrains.annotations.NotNull;
+import tacos.model.ingredients.Ingredient;
+
+// ---
+// How likely the TacoProposer is to pick an ingredient, relative to the other ingredients
+// of its type. Weights need not be normalized; zero means "never".
+//
+// Conditional weights, if offered, are relative to an "anchor": the one ingredient of the
+// first type of which a taco always has exactly one (the wrap). The TacoProposer draws the
+// anchor first and then draws the other ingredients with weights given that anchor.
+// ---
+
+@FunctionalInterface
+public interface IngredientWeights {
+
+    IngredientWeights uniform = ingredient -> 1.0;
+
+    double weight(@NotNull Ingredient ingredient);
+
+    default double weight(@NotNull Ingredient anchor, @NotNull Ingredient ingredient) {
+        return weight(ingredient);
+    }
+
+    // Whether weight(anchor, ingredient) depends on the anchor at all
+
+    default boolean isConditional() {
+        return false;
+    }
+}
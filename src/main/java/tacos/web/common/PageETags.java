@@ -0,0 +1,123 @@
+package tacos.web.common;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.boot.autoconfigure.thymeleaf.ThymeleafProperties;
+import org.springframework.boot.autoconfigure.web.WebProperties;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import tacos.model.helpers.Helpers;
+import tacos.model.ingredients.IngredientRelation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+
+// ---
+// ETags for the pages that are the same for every visitor until the catalog changes
+// ("/" and the GET of "/design", whose taco is always a new, empty one).
+//
+// The ETag combines a "template version", which is a hash over the templates and the static
+// resources (the pages link to content-hashed URLs of the latter in the "prod" profile),
+// taken once at startup, and the fingerprint of the IngredientRelation. A repeat visitor
+// sending "If-None-Match" gets a 304 and the template is not rendered at all.
+//
+// The ETags are weak: the pages are equivalent, not byte-for-byte identical (Tomcat may
+// compress them, "tacos.web.grid-cache" changes the whitespace).
+//
+// Only when Thymeleaf caches templates. In development, templates are re-read from disk on
+// every request and may have changed, so there are no ETags.
+// ---
+
+@Slf4j
+@Component
+public class PageETags {
+
+    // Hex hash of templates and static resources, null if ETags are off
+
+    private final @Nullable String templateVersion;
+
+    public PageETags(@NotNull ThymeleafProperties thymeleafProperties, @NotNull WebProperties webProperties) {
+        if (thymeleafProperties.isCache()) {
+            final String[] locations = Arrays.copyOf(webProperties.getResources().getStaticLocations(),
+                    webProperties.getResources().getStaticLocations().length + 1);
+            locations[locations.length - 1] = thymeleafProperties.getPrefix();
+            this.templateVersion = hashResources(locations);
+        } else {
+            this.templateVersion = null;
+        }
+        log.info(">>> {} created, template version: {}", Helpers.makeLocator(this), templateVersion);
+    }
+
+    public boolean isEnabled() {
+        return templateVersion != null;
+    }
+
+    // For a page that shows the catalog: set the ETag (and "Cache-Control") on the response
+    // and return true if the client's copy is still current. The response status is then 304
+    // and the handler should return null.
+
+    public boolean checkNotModified(@NotNull WebRequest request, @NotNull IngredientRelation relation) {
+        return checkNotModified(request, Long.toHexString(relation.getFingerprint()));
+    }
+
+    // Same for a page that does not depend on the catalog.
+
+    public boolean checkNotModified(@NotNull WebRequest request) {
+        return checkNotModified(request, "static");
+    }
+
+    private boolean checkNotModified(@NotNull WebRequest request, @NotNull String contentVersion) {
+        if (templateVersion == null) {
+            return false;
+        }
+        final boolean res = request.checkNotModified("W/\"" + templateVersion + "-" + contentVersion + "\"");
+        // The session cookie makes the response private; "no-cache" means "revalidate every time"
+        if (request instanceof ServletWebRequest servletRequest && servletRequest.getResponse() != null) {
+            servletRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        }
+        return res;
+    }
+
+    private static @NotNull String hashResources(@NotNull String[] locations) {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is available in every JVM", ex);
+        }
+        final PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        final byte[] buffer = new byte[8192];
+        try {
+            for (String location : locations) {
+                final String pattern = location.endsWith("/") ? location + "**" : location + "/**";
+                final Resource[] resources = resolver.getResources(pattern);
+                Arrays.sort(resources, Comparator.comparing(Resource::getDescription));
+                for (Resource resource : resources) {
+                    if (!resource.isReadable()) {
+                        continue; // a directory
+                    }
+                    try (InputStream in = new DigestInputStream(resource.getInputStream(), digest)) {
+                        while (in.read(buffer) >= 0) {
+                            // just digesting
+                        }
+                    }
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not hash the templates and static resources", ex);
+        }
+        return HexFormat.of().formatHex(digest.digest(), 0, Long.BYTES);
+    }
+}
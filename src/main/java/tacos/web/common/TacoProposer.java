@@ -0,0 +1,265 @@
+package tacos.web.common;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import tacos.model.helpers.Helpers;
+import tacos.model.ingredients.Ingredient;
+import tacos.model.ingredients.IngredientCatalog;
+import tacos.model.ingredients.IngredientRelation;
+import tacos.model.ingredients.IngredientSet;
+import tacos.model.ingredients.IngredientType;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.ToDoubleFunction;
+import java.util.random.RandomGenerator;
+
+// ---
+// Random taco proposals for the ProposeTacoController.
+//
+// A proposal is valid by construction: per type, the number of ingredients is drawn from the
+// range the type allows (at least one of a mandatory type, at most one of an exclusive type,
+// at most "maxPerType" of any type), so the space of possible proposals is the product of
+// the per-type choices. Its size is logged when a catalog snapshot is laid out.
+//
+// Per catalog snapshot and weights, each type gets an alias table over its ingredients, built
+// from the ingredient weights (uniform unless setWeights() is called, e.g. with the popularity
+// from the IngredientCoOccurrence). Drawing an ingredient is then O(1); a draw that hits an ingredient
+// already in the proposal is repeated (the IngredientSet is a bitmask, so that check is O(1),
+// too). A proposal thus costs O(number of types * maxPerType), however large the catalog.
+//
+// With conditional weights, the first type of which a taco has exactly one ingredient (the
+// wrap) is the "anchor" type: it is drawn first, and the other types have one alias table per
+// anchor ingredient. That is skipped if there are more than "maxAnchors" anchor ingredients,
+// to bound the memory; the unconditional weights apply then.
+//
+// Names are unique within the session's TacoOrder: the name space ("Jester 1" to "Hammer 99")
+// is entered at a random point and walked until a name not yet in the order comes up.
+//
+// Randomness comes from ThreadLocalRandom, so concurrent requests don't contend on the
+// seed of a shared Random. The methods taking a RandomGenerator exist so that tests can use
+// a seeded one.
+// ---
+
+@Slf4j
+@Component
+public class TacoProposer {
+
+    private final static String[] names = {
+            "Jester",
+            "Touchdown",
+            "Steamroller",
+            "Clean Slate",
+            "Boomstick",
+            "Beanstalk",
+            "Elephant",
+            "Brown Garden",
+            "Desert Avalanche",
+            "Pink Rhino",
+            "Hotcake",
+            "Pigstick",
+            "Dreamstate",
+            "Surprise Party",
+            "Resurrection",
+            "Lunar Eclipse",
+            "Snowslide",
+            "Jungle Citadel",
+            "Ocean Rhino",
+            "Hammer"};
+
+    private final static int numbersPerName = 99;
+
+    // A draw that hits an ingredient already proposed is repeated at most this many times per
+    // ingredient wanted; only matters if few ingredients of a type carry all the weight.
+
+    private final static int drawsPerPick = 8;
+
+    private final static int maxAnchors = 64;
+
+    // Per type occurring in a snapshot: the ingredients, an alias table over their weights
+    // (and, possibly, one per anchor ingredient) and how many of them to propose
+
+    private record TypeChoice(@NotNull Ingredient[] ingredients, @NotNull AliasTable table, AliasTable[] byAnchor, int atLeast, int atMost) {
+    }
+
+    // "anchor" indexes "types", or is -1 if weights are not conditional
+
+    private record Choices(@NotNull IngredientRelation relation, @NotNull IngredientWeights weights, @NotNull TypeChoice[] types, int anchor) {
+    }
+
+    private final IngredientCatalog ingredientCatalog;
+
+    private final int maxPerType;
+
+    private volatile IngredientWeights weights = IngredientWeights.uniform;
+
+    private volatile Choices choices;
+
+    public TacoProposer(
+            @NotNull IngredientCatalog ingredientCatalog,
+            @Value("${tacos.propose.max-per-type:4}") int maxPerType) {
+        if (maxPerType < 1) {
+            throw new IllegalArgumentException("maxPerType must be at least 1, but is " + maxPerType);
+        }
+        this.ingredientCatalog = ingredientCatalog;
+        this.maxPerType = maxPerType;
+        log.info(">>> {} created with ingredientCatalog {}, at most {} ingredients per type",
+                Helpers.makeLocator(this),
+                Helpers.makeLocator(ingredientCatalog),
+                maxPerType);
+    }
+
+    // How likely an ingredient is to be picked, relative to the others of its type. The alias
+    // tables are built here, on the caller's thread (the merge of the IngredientCoOccurrence),
+    // so that no request pays for them; they are built on a request only when the catalog
+    // snapshot changes.
+
+    public void setWeights(@NotNull IngredientWeights weights) {
+        this.weights = weights;
+        this.choices = buildChoices(ingredientCatalog.get(), weights);
+    }
+
+    public @NotNull IngredientSet proposeIngredients() {
+        return proposeIngredients(ThreadLocalRandom.current());
+    }
+
+    public @NotNull String proposeName() {
+        return proposeName(ThreadLocalRandom.current());
+    }
+
+    public @NotNull String proposeName(@NotNull Set<String> taken) {
+        return proposeName(ThreadLocalRandom.current(), taken);
+    }
+
+    public @NotNull IngredientSet proposeIngredients(@NotNull RandomGenerator random) {
+        // Work with one snapshot throughout, even if the catalog is swapped meanwhile
+        final Choices current = getChoices(ingredientCatalog.get());
+        final IngredientSet res = new IngredientSet();
+        final TypeChoice[] types = current.types();
+        int anchor = -1;
+        if (current.anchor() >= 0) {
+            final TypeChoice anchorType = types[current.anchor()];
+            anchor = anchorType.table().sample(random);
+            res.add(anchorType.ingredients()[anchor]);
+        }
+        for (int i = 0; i < types.length; i++) {
+            if (i == current.anchor()) {
+                continue;
+            }
+            final TypeChoice type = types[i];
+            final Ingredient[] available = type.ingredients();
+            final AliasTable table = (anchor >= 0) ? type.byAnchor()[anchor] : type.table();
+            final int howMany = type.atLeast() + random.nextInt(type.atMost() - type.atLeast() + 1);
+            int picked = 0;
+            for (int draws = 0; picked < howMany && draws < howMany * drawsPerPick; draws++) {
+                if (res.add(available[table.sample(random)])) {
+                    picked++;
+                }
+            }
+            // the first draw always succeeds, so a mandatory type always gets its ingredient
+            assert picked >= type.atLeast();
+        }
+        return res;
+    }
+
+    public @NotNull String proposeName(@NotNull RandomGenerator random) {
+        return nameAt(random.nextInt(names.length * numbersPerName));
+    }
+
+    public @NotNull String proposeName(@NotNull RandomGenerator random, @NotNull Set<String> taken) {
+        final int space = names.length * numbersPerName;
+        final int start = random.nextInt(space);
+        for (int i = 0; i < space && i <= taken.size(); i++) {
+            final String name = nameAt((start + i) % space);
+            if (!taken.contains(name)) {
+                return name;
+            }
+        }
+        // Only if the order holds (nearly) the whole name space: go beyond 99
+        final String base = names[random.nextInt(names.length)] + " ";
+        int number = numbersPerName + 1;
+        while (taken.contains(base + number)) {
+            number++;
+        }
+        return base + number;
+    }
+
+    private static @NotNull String nameAt(int index) {
+        return names[index / numbersPerName] + " " + (index % numbersPerName + 1);
+    }
+
+    private @NotNull Choices getChoices(@NotNull IngredientRelation relation) {
+        final Choices current = choices;
+        final IngredientWeights currentWeights = weights;
+        if (current != null && current.relation() == relation && current.weights() == currentWeights) {
+            return current;
+        }
+        final Choices fresh = buildChoices(relation, currentWeights);
+        choices = fresh;
+        return fresh;
+    }
+
+    private @NotNull Choices buildChoices(@NotNull IngredientRelation relation, @NotNull IngredientWeights weights) {
+        final List<IngredientType> types = relation.getTypesOccurring();
+        final Ingredient[][] available = new Ingredient[types.size()][];
+        int anchor = -1;
+        for (int i = 0; i < available.length; i++) {
+            final IngredientType type = types.get(i);
+            available[i] = relation.getByType(type).toArray(new Ingredient[0]);
+            if (anchor < 0 && type.isMandatory() && type.isExclusive()) {
+                anchor = i;
+            }
+        }
+        if (anchor >= 0 && (!weights.isConditional() || available[anchor].length > maxAnchors)) {
+            anchor = -1;
+        }
+        final TypeChoice[] res = new TypeChoice[available.length];
+        double combinations = 1;
+        for (int i = 0; i < res.length; i++) {
+            final IngredientType type = types.get(i);
+            final int atMost = Math.min(type.isExclusive() ? 1 : available[i].length, maxPerType);
+            final int atLeast = type.isMandatory() ? 1 : 0;
+            assert atLeast <= atMost && atMost <= available[i].length;
+            final AliasTable table = AliasTable.of(weigh(available[i], weights::weight));
+            AliasTable[] byAnchor = null;
+            if (anchor >= 0 && i != anchor) {
+                byAnchor = new AliasTable[available[anchor].length];
+                for (int a = 0; a < byAnchor.length; a++) {
+                    final Ingredient anchorIngredient = available[anchor][a];
+                    byAnchor[a] = AliasTable.of(weigh(available[i], ingredient -> weights.weight(anchorIngredient, ingredient)));
+                }
+            }
+            res[i] = new TypeChoice(available[i], table, byAnchor, atLeast, atMost);
+            combinations *= countSubsets(available[i].length, atLeast, atMost);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Proposing from {} types, {} possible ingredient combinations", res.length, String.format("%.3g", combinations));
+        }
+        return new Choices(relation, weights, res, anchor);
+    }
+
+    private static @NotNull double[] weigh(@NotNull Ingredient[] ingredients, @NotNull ToDoubleFunction<Ingredient> weights) {
+        final double[] res = new double[ingredients.length];
+        for (int i = 0; i < ingredients.length; i++) {
+            res[i] = weights.applyAsDouble(ingredients[i]);
+        }
+        return res;
+    }
+
+    // Number of subsets of an n-set with between atLeast and atMost elements
+
+    private static double countSubsets(int n, int atLeast, int atMost) {
+        double binomial = 1; // n choose k, starting at k = 0
+        double res = 0;
+        for (int k = 0; k <= atMost; k++) {
+            if (k >= atLeast) {
+                res += binomial;
+            }
+            binomial = binomial * (n - k) / (k + 1);
+        }
+        return res;
+    }
+}
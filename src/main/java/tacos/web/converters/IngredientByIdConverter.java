@@ -1,45 +1,228 @@
 package tacos.web.converters;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.stereotype.Component;
 import tacos.model.helpers.Helpers;
 import tacos.model.ingredients.Ingredient;
+import tacos.model.ingredients.IngredientCatalog;
 import tacos.model.ingredients.IngredientRelation;
-import tacos.model.ingredients.IngredientsSource;
 
-import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 
 // ---
 // A single instance of component is created by Spring Framework at application startup.
 // It is used to convert "ingredient id", which are Strings, to proper Ingredient instances.
 // If there is another Component which also implements Converter<String, Ingredient>,
 // Spring Framework seems to use the first one encountered in the classpath (maybe?)
+//
+// There is a bounded cache in front of the lookup, from raw string to Ingredient.
+// Unknown ids are cached, too, so a flood of junk ids costs no more than a flood of
+// good ones, but in a table of their own, so that they can't push out the known ids.
+// Each table has a fixed number of slots, taken in pairs by hash: a new entry goes into
+// a free slot of its pair, or else replaces the entry of the pair that has not been read
+// since the pair was last full (a CLOCK over two slots). There is no lock and no size to
+// keep in step; racing threads may overwrite each other's entries, which costs a later
+// miss at most. The cache belongs to a given snapshot of the IngredientCatalog and is
+// dropped when the catalog is swapped. Hits, misses, evictions and size are published
+// as Micrometer "cache.*" meters with tag "cache=ingredientById" (see /actuator/metrics).
 // ---
 
 @Slf4j
 @Component  // Spring will create an instance of this class in the Spring application context at scan time
-public class IngredientByIdConverter implements Converter<String, Ingredient> {
+public class IngredientByIdConverter implements Converter<String, Ingredient>, MeterBinder {
 
-    private final IngredientRelation ingredientRelation;
+    // Raw strings longer than this are looked up but not cached
 
-    // "ingredientRelation" is constructor-injected at scan time.
+    private final static int maxCachedKeyLength = 64;
 
-    public IngredientByIdConverter(@NotNull IngredientsSource ingredientsSource) {
-        this.ingredientRelation = ingredientsSource.refresh();
-        log.info(">>> {} created", Helpers.makeLocator(this));
+    // "referenced" is set when the entry is read, and cleared when the entry survives an
+    // eviction in its pair
+
+    private static final class Entry {
+
+        final String key;
+
+        final Ingredient value;
+
+        volatile boolean referenced;
+
+        Entry(@NotNull String key, @Nullable Ingredient value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    // The slots of one table; slots 2k and 2k + 1 form a pair
+
+    private static final class Table {
+
+        private final AtomicReferenceArray<Entry> slots;
+
+        Table(int capacity) {
+            slots = new AtomicReferenceArray<>(Math.max(2, Integer.highestOneBit(Math.max(1, capacity - 1)) << 1));
+        }
+
+        private int pairOf(@NotNull String key) {
+            final int h = key.hashCode();
+            return (h ^ (h >>> 16)) & (slots.length() - 2);
+        }
+
+        @Nullable
+        Entry get(@NotNull String key) {
+            final int pair = pairOf(key);
+            for (int i = pair; i <= pair + 1; i++) {
+                final Entry entry = slots.get(i);
+                if (entry != null && entry.key.equals(key)) {
+                    if (!entry.referenced) {
+                        entry.referenced = true; // written once, not on every hit
+                    }
+                    return entry;
+                }
+            }
+            return null;
+        }
+
+        // Returns true if another entry has been evicted
+
+        boolean put(@NotNull String key, @Nullable Ingredient value) {
+            final int pair = pairOf(key);
+            final Entry fresh = new Entry(key, value);
+            final Entry first = slots.get(pair);
+            final Entry second = slots.get(pair + 1);
+            if (first == null || first.key.equals(key)) {
+                slots.set(pair, fresh);
+                return false;
+            }
+            if (second == null || second.key.equals(key)) {
+                slots.set(pair + 1, fresh);
+                return false;
+            }
+            if (!first.referenced) {
+                slots.set(pair, fresh);
+            } else if (!second.referenced) {
+                slots.set(pair + 1, fresh);
+            } else {
+                first.referenced = false;
+                second.referenced = false;
+                slots.set(pair, fresh);
+            }
+            return true;
+        }
+
+        int size() {
+            int res = 0;
+            for (int i = 0; i < slots.length(); i++) {
+                if (slots.get(i) != null) {
+                    res++;
+                }
+            }
+            return res;
+        }
+    }
+
+    private record Cache(@NotNull IngredientRelation relation, @NotNull Table found, @NotNull Table notFound) {
+    }
+
+    private final IngredientCatalog ingredientCatalog;
+
+    private final int maxCacheSize;
+
+    private volatile Cache cache;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    // "ingredientCatalog" is constructor-injected at scan time.
+
+    public IngredientByIdConverter(
+            @NotNull IngredientCatalog ingredientCatalog,
+            @Value("${tacos.converter.cache-size:1024}") int maxCacheSize) {
+        this.ingredientCatalog = ingredientCatalog;
+        this.maxCacheSize = maxCacheSize;
+        log.info(">>> {} created with cache size {}", Helpers.makeLocator(this), maxCacheSize);
     }
 
     // This is called a lot from Thymeleaf-calling-Spring-in-IoC-fashion during template processing,
-    // apparently for exhaustive comparison.
+    // apparently for exhaustive comparison. The lookup by raw string creates no IngredientId.
 
     @Override
     @Nullable
     public Ingredient convert(@NotNull String id) {
-        Optional<Ingredient> res = ingredientRelation.getById(id);
-        log.trace(">>> {} converting string '{}' to {}", Helpers.makeLocator(this), id, res);
-        return res.orElse(null);
+        final Cache current = currentCache();
+        Entry entry = current.found.get(id);
+        if (entry == null) {
+            entry = current.notFound.get(id);
+        }
+        final Ingredient ingredient;
+        if (entry != null) {
+            hits.increment();
+            ingredient = entry.value;
+        } else {
+            misses.increment();
+            ingredient = current.relation.findById(id);
+            if (id.length() <= maxCachedKeyLength
+                    && (ingredient != null ? current.found : current.notFound).put(id, ingredient)) {
+                evictions.increment();
+            }
+        }
+        if (log.isTraceEnabled()) {
+            log.trace(">>> {} converting string '{}' to {}", Helpers.makeLocator(this), id, ingredient);
+        }
+        return ingredient;
+    }
+
+    // The cache for the current catalog snapshot. If the catalog has been swapped, start
+    // a new cache. Racing threads may each start one; only one of them survives, which
+    // is harmless.
+
+    private @NotNull Cache currentCache() {
+        final IngredientRelation relation = ingredientCatalog.get();
+        Cache res = cache;
+        if (res == null || res.relation != relation) {
+            res = new Cache(relation, new Table(maxCacheSize), new Table(maxCacheSize));
+            cache = res;
+        }
+        return res;
+    }
+
+    // Counts the slots in use, so only call it now and then (it backs the "cache.size" gauge)
+
+    public long getCacheSize() {
+        final Cache current = cache;
+        return (current == null) ? 0 : current.found.size() + current.notFound.size();
+    }
+
+    @Override
+    public void bindTo(@NotNull MeterRegistry registry) {
+        final Tags tags = Tags.of("cache", "ingredientById");
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+                .tags(tags).tag("result", "hit")
+                .description("Conversions answered from the cache")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+                .tags(tags).tag("result", "miss")
+                .description("Conversions that had to look up the catalog")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", evictions, LongAdder::sum)
+                .tags(tags)
+                .description("Entries removed because the cache was full")
+                .register(registry);
+        Gauge.builder("cache.size", this, IngredientByIdConverter::getCacheSize)
+                .tags(tags)
+                .description("Number of entries in the cache")
+                .register(registry);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,97 @@
+package tacos.web.logging;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import tacos.model.helpers.Helpers;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+// ---
+// Gives every request a correlation id, in the MDC under "requestId" (the log pattern shows
+// it, see "logging.pattern.level") and in the "X-Request-Id" response header. An id coming
+// in with the request (from a proxy, say) is kept if it looks harmless.
+//
+// One request in "sample-one-in" (never if 0) is also marked "sampled" in the MDC. The
+// SampledDiagnosticsTurboFilter then lets that request's DEBUG messages through even though
+// the "tacos" loggers are at INFO, so a production system yields complete diagnostics for
+// a few requests, while all others skip the guarded DEBUG code entirely.
+// ---
+
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestCorrelationFilter extends OncePerRequestFilter {
+
+    public final static String requestIdKey = "requestId";
+
+    public final static String sampledKey = "sampled";
+
+    public final static String requestIdHeader = "X-Request-Id";
+
+    private final static int maxIncomingIdLength = 64;
+
+    private final int sampleOneIn;
+
+    public RequestCorrelationFilter(@Value("${tacos.logging.sample-one-in:0}") int sampleOneIn) {
+        this.sampleOneIn = sampleOneIn;
+        log.info(">>> {} created, sampling {}",
+                Helpers.makeLocator(this),
+                (sampleOneIn > 0) ? "one request in " + sampleOneIn : "off");
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NotNull HttpServletRequest request,
+            @NotNull HttpServletResponse response,
+            @NotNull FilterChain filterChain) throws ServletException, IOException {
+        final String incoming = request.getHeader(requestIdHeader);
+        final String requestId = isAcceptable(incoming) ? incoming : newRequestId();
+        final boolean sampled = sampleOneIn > 0 && ThreadLocalRandom.current().nextInt(sampleOneIn) == 0;
+        MDC.put(requestIdKey, requestId);
+        if (sampled) {
+            MDC.put(sampledKey, "true");
+        }
+        response.setHeader(requestIdHeader, requestId);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove(requestIdKey);
+            if (sampled) {
+                MDC.remove(sampledKey);
+            }
+        }
+    }
+
+    // Random, not unique, but enough to find the lines of one request. Cheaper than a UUID,
+    // which draws from SecureRandom.
+
+    private static @NotNull String newRequestId() {
+        return Long.toHexString(ThreadLocalRandom.current().nextLong());
+    }
+
+    // Letters, digits, '-', '_' and '.' only, so that nothing odd ends up in the log
+
+    private static boolean isAcceptable(String id) {
+        if (id == null || id.isEmpty() || id.length() > maxIncomingIdLength) {
+            return false;
+        }
+        for (int i = 0; i < id.length(); i++) {
+            final char c = id.charAt(i);
+            if (!(Character.isLetterOrDigit(c) && c < 128) && c != '-' && c != '_' && c != '.') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,45 @@
+package tacos.web.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+// ---
+// Logback turbo filter (configured in logback-spring.xml): for a request that the
+// RequestCorrelationFilter has marked "sampled", messages of loggers under "prefix" are
+// accepted down to "level" (DEBUG by default), whatever the configured logger level.
+//
+// Turbo filters are also asked by isDebugEnabled() and friends, so the guarded diagnostic
+// code runs for sampled requests only. For everything else the answer is NEUTRAL, i.e. the
+// configured level decides; messages at INFO and above are not even looked at.
+// ---
+
+public class SampledDiagnosticsTurboFilter extends TurboFilter {
+
+    private String prefix = "tacos";
+
+    private Level level = Level.DEBUG;
+
+    public void setPrefix(@NotNull String prefix) {
+        this.prefix = prefix;
+    }
+
+    public void setLevel(@NotNull String level) {
+        this.level = Level.toLevel(level, Level.DEBUG);
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (level == null || level.levelInt >= Level.INFO_INT || level.levelInt < this.level.levelInt) {
+            return FilterReply.NEUTRAL;
+        }
+        if (!logger.getName().startsWith(prefix) || MDC.get(RequestCorrelationFilter.sampledKey) == null) {
+            return FilterReply.NEUTRAL;
+        }
+        return FilterReply.ACCEPT;
+    }
+}
@@ -0,0 +1,153 @@
+package tacos.web.session;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.catalina.Session;
+import org.apache.catalina.session.PersistentManagerBase;
+import org.apache.catalina.session.StandardSession;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.Serial;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.locks.ReentrantLock;
+
+// ---
+// A persistent session manager (like Tomcat's PersistentManager, which is final) that keeps
+// at most "hotSessions" sessions on the heap, the most recently used ones, and swaps the
+// others out to its Store.
+//
+// Tomcat's own "maxActiveSessions" refuses new sessions when the limit is reached, and swaps
+// out (in the background, every few seconds) only. Here, the limit is soft: when a new session
+// is created and the limit is reached, the least recently used sessions are swapped out right
+// away, about a tenth of the limit in one go, so that sorting is not needed for every new
+// session. Sessions that have been used in the last "minIdleSwap" seconds are not touched.
+//
+// A session that a request is still using is never swapped out, however long it had been
+// idle before: swapOut() recycles the session object, which the request would then write
+// to. As in PersistentManagerBase.processMaxActiveSwaps(), each candidate is locked and
+// checked again: idle time since the start of the last access ("thisAccessedTime", set when
+// a request comes in; "lastAccessedTime" only changes when it ends) and the access count,
+// which Tomcat maintains with "sessionActivityCheck" on.
+//
+// A swapped-out session is swapped in again by the request that uses it. On startup, nothing
+// is loaded: the sessions saved on shutdown stay in the store until they are asked for.
+// ---
+
+@Slf4j
+public class HotSessionsManager extends PersistentManagerBase {
+
+    private final int hotSessions;
+
+    // Held while swapping out; a thread that doesn't get it doesn't wait
+
+    private final ReentrantLock swapLock = new ReentrantLock();
+
+    public HotSessionsManager(int hotSessions) {
+        this.hotSessions = hotSessions;
+        setSessionActivityCheck(true); // count the requests in progress per session
+    }
+
+    // The sessions of this manager, with the access count (protected in StandardSession) readable
+
+    static class HotSession extends StandardSession {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        HotSession(@NotNull HotSessionsManager manager) {
+            super(manager);
+        }
+
+        boolean isBeingAccessed() {
+            return accessCount != null && accessCount.get() > 0;
+        }
+    }
+
+    @Override
+    protected @NotNull StandardSession getNewSession() {
+        return new HotSession(this);
+    }
+
+    public int getHotSessions() {
+        return hotSessions;
+    }
+
+    @Override
+    public String getName() {
+        return "HotSessionsManager";
+    }
+
+    @Override
+    public @NotNull Session createSession(String sessionId) {
+        if (getActiveSessions() >= hotSessions) {
+            swapOutLeastRecentlyUsed();
+        }
+        return super.createSession(sessionId);
+    }
+
+    // Also in the background (besides the idle swaps of PersistentManagerBase)
+
+    @Override
+    public void processPersistenceChecks() {
+        super.processPersistenceChecks();
+        if (getActiveSessions() > hotSessions) {
+            swapOutLeastRecentlyUsed();
+        }
+    }
+
+    private void swapOutLeastRecentlyUsed() {
+        if (!swapLock.tryLock()) {
+            return;
+        }
+        try {
+            final Session[] candidates = findSessions();
+            final int target = hotSessions - Math.max(1, hotSessions / 10);
+            int toSwap = candidates.length - target;
+            if (toSwap <= 0) {
+                return;
+            }
+            Arrays.sort(candidates, Comparator.comparingLong(Session::getThisAccessedTimeInternal));
+            final long minIdleMs = Math.max(0, getMinIdleSwap()) * 1000L;
+            int swapped = 0;
+            for (Session session : candidates) {
+                if (swapped == toSwap) {
+                    break;
+                }
+                synchronized (session) {
+                    if (session.getIdleTimeInternal() < minIdleMs) {
+                        continue; // used since the sort
+                    }
+                    if (session instanceof HotSession hot && hot.isBeingAccessed()) {
+                        continue;
+                    }
+                    try {
+                        swapOut(session);
+                        swapped++;
+                    } catch (IOException ex) {
+                        log.warn("Could not swap out session {}", session.getIdInternal(), ex);
+                    }
+                }
+            }
+            log.debug("Swapped out {} of {} sessions", swapped, candidates.length);
+        } finally {
+            swapLock.unlock();
+        }
+    }
+
+    // PersistentManagerBase swaps in all stored sessions at startup. Leave them in the store;
+    // findSession() swaps them in when they are used.
+
+    @Override
+    public void load() {
+        log.info("{} sessions are in the store", getStoreSize());
+    }
+
+    private int getStoreSize() {
+        try {
+            return getStore().getSize();
+        } catch (IOException ex) {
+            return -1;
+        }
+    }
+}
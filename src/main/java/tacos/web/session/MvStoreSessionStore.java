@@ -0,0 +1,137 @@
+package tacos.web.session;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.Session;
+import org.apache.catalina.session.StandardSession;
+import org.apache.catalina.session.StoreBase;
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+import org.jetbrains.annotations.NotNull;
+import tacos.model.helpers.Helpers;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+// ---
+// A Tomcat session Store that keeps serialized sessions in an H2 MVStore file, i.e. on disk
+// (with the OS page cache in front), not on the heap. Used by the HotSessionsManager, which
+// keeps the recently used sessions on the heap and swaps the others out to here.
+//
+// Two maps: "sessions" (id to the serialized session, as written by StandardSession, with
+// the compact Externalizable form of TacoOrder inside) and "expires" (id to the time at which
+// the session expires if not accessed). The latter lets the periodic expiry check pick the
+// expired sessions without deserializing all the others.
+//
+// The file is not encrypted. That's why TacoOrder leaves the card number and the CVV out
+// of its external form: they are never written here.
+//
+// MVStore commits in the background about every second, so a crash may lose the changes
+// of the last second. On a regular shutdown, all sessions are written and committed.
+// ---
+
+@Slf4j
+public class MvStoreSessionStore extends StoreBase {
+
+    private final Path file;
+
+    private MVStore mvStore;
+
+    private MVMap<String, byte[]> sessions;
+
+    private MVMap<String, Long> expires;
+
+    public MvStoreSessionStore(@NotNull Path file) {
+        this.file = file;
+        log.info(">>> {} created with file {}", Helpers.makeLocator(this), file.toAbsolutePath());
+    }
+
+    @Override
+    protected synchronized void startInternal() throws LifecycleException {
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+        } catch (IOException ex) {
+            throw new LifecycleException("Could not create the directory for " + file, ex);
+        }
+        mvStore = new MVStore.Builder().fileName(file.toString()).compress().open();
+        sessions = mvStore.openMap("sessions");
+        expires = mvStore.openMap("expires");
+        log.info("Session store {} opened with {} sessions", file.toAbsolutePath(), sessions.size());
+        super.startInternal();
+    }
+
+    @Override
+    protected synchronized void stopInternal() throws LifecycleException {
+        super.stopInternal();
+        if (mvStore != null) {
+            mvStore.close(); // commits
+            mvStore = null;
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return sessions.size();
+    }
+
+    @Override
+    public String[] keys() {
+        return sessions.keySet().toArray(new String[0]);
+    }
+
+    // Only the sessions that have timed out, according to the "expires" map. StoreBase loads
+    // and expires these (so that session listeners are called) and then removes them.
+
+    @Override
+    public String[] expiredKeys() {
+        final long now = System.currentTimeMillis();
+        return expires.entrySet().stream()
+                .filter(entry -> entry.getValue() <= now)
+                .map(Map.Entry::getKey)
+                .toArray(String[]::new);
+    }
+
+    @Override
+    public Session load(@NotNull String id) throws ClassNotFoundException, IOException {
+        final byte[] bytes = sessions.get(id);
+        if (bytes == null) {
+            return null;
+        }
+        try (ObjectInputStream in = getObjectInputStream(new ByteArrayInputStream(bytes))) {
+            final StandardSession session = (StandardSession) manager.createEmptySession();
+            session.readObjectData(in);
+            session.setManager(manager);
+            return session;
+        }
+    }
+
+    @Override
+    public void save(@NotNull Session session) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            ((StandardSession) session).writeObjectData(out);
+        }
+        final int maxInactiveSeconds = session.getMaxInactiveInterval();
+        final long expiresAt = (maxInactiveSeconds <= 0)
+                ? Long.MAX_VALUE
+                : session.getLastAccessedTimeInternal() + maxInactiveSeconds * 1000L;
+        sessions.put(session.getIdInternal(), bytes.toByteArray());
+        expires.put(session.getIdInternal(), expiresAt);
+    }
+
+    @Override
+    public void remove(@NotNull String id) {
+        sessions.remove(id);
+        expires.remove(id);
+    }
+
+    @Override
+    public void clear() {
+        sessions.clear();
+        expires.clear();
+    }
+}
@@ -0,0 +1,43 @@
+package tacos.web.session;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+// ---
+// Opt-in with "tacos.sessions.store: mvstore": the embedded Tomcat gets a HotSessionsManager
+// backed by an MvStoreSessionStore instead of its default in-heap StandardManager. Sessions
+// then survive restarts (they are saved on shutdown) and only the recently used ones take
+// heap. Idle sessions still expire after "server.servlet.session.timeout", in the store, too.
+// Everything is local; there is no external session server.
+// ---
+
+@Slf4j
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "tacos.sessions.store", havingValue = "mvstore")
+public class SessionStoreConfig {
+
+    @Bean
+    public @NotNull WebServerFactoryCustomizer<TomcatServletWebServerFactory> sessionStoreCustomizer(
+            @Value("${tacos.sessions.file:./data/sessions.mv}") String file,
+            @Value("${tacos.sessions.hot-sessions:10000}") int hotSessions,
+            @Value("${tacos.sessions.min-idle-swap-seconds:5}") int minIdleSwapSeconds,
+            @Value("${tacos.sessions.max-idle-swap-seconds:300}") int maxIdleSwapSeconds) {
+        log.info("Sessions are kept in {}, at most {} on the heap", Path.of(file).toAbsolutePath(), hotSessions);
+        return factory -> factory.addContextCustomizers(context -> {
+            final HotSessionsManager manager = new HotSessionsManager(hotSessions);
+            manager.setStore(new MvStoreSessionStore(Path.of(file)));
+            manager.setSaveOnRestart(true);
+            manager.setMinIdleSwap(minIdleSwapSeconds);
+            manager.setMaxIdleSwap(maxIdleSwapSeconds);
+            context.setManager(manager);
+        });
+    }
+}
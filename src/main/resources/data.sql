@@ -0,0 +1,14 @@
+-- Run by Spring Boot at startup for the embedded database, after "schema.sql".
+-- Same ingredients as in IngredientsSourceHardcoded.
+-- "merge" rather than "delete" and "insert", as rows in "Ingredient_Ref" may refer to them.
+
+merge into Ingredient (id, name, type) key (id) values ('FLTO', 'Flour Tortilla', 'WRAP');
+merge into Ingredient (id, name, type) key (id) values ('COTO', 'Corn Tortilla', 'WRAP');
+merge into Ingredient (id, name, type) key (id) values ('GRBF', 'Ground Beef', 'PROTEIN');
+merge into Ingredient (id, name, type) key (id) values ('CARN', 'Carnitas', 'PROTEIN');
+merge into Ingredient (id, name, type) key (id) values ('TMTO', 'Diced Tomatoes', 'VEGGIES');
+merge into Ingredient (id, name, type) key (id) values ('LETC', 'Lettuce', 'VEGGIES');
+merge into Ingredient (id, name, type) key (id) values ('CHED', 'Cheddar', 'CHEESE');
+merge into Ingredient (id, name, type) key (id) values ('JACK', 'Monterrey Jack', 'CHEESE');
+merge into Ingredient (id, name, type) key (id) values ('SLSA', 'Salsa', 'SAUCE');
+merge into Ingredient (id, name, type) key (id) values ('SRCR', 'Sour Cream', 'SAUCE');
@@ -0,0 +1,42 @@
+-- Run by Spring Boot at startup for the embedded database.
+-- Based on Chapter 3.1.3 of "Spring in Action" 6th edition.
+
+create table if not exists Ingredient (
+    id varchar(16) not null primary key,
+    name varchar(64) not null,
+    type varchar(10) not null
+);
+
+-- The column widths are the maximum lengths allowed by the validation of Address,
+-- CreditCardInfo and Taco: a valid order always fits.
+
+create table if not exists Taco_Order (
+    id identity primary key,
+    delivery_name varchar(50) not null,
+    delivery_street varchar(50) not null,
+    delivery_city varchar(50) not null,
+    delivery_state varchar(20) not null,
+    delivery_zip varchar(10) not null,
+    cc_number varchar(19) not null,
+    cc_expiration varchar(16) not null,
+    cc_cvv varchar(3) not null,
+    placed_at timestamp not null
+);
+
+-- "taco_order_key" is the position of the taco in its order
+
+create table if not exists Taco (
+    id identity primary key,
+    name varchar(50) not null,
+    taco_order bigint not null references Taco_Order(id),
+    taco_order_key bigint not null,
+    created_at timestamp not null
+);
+
+-- Join rows between Taco and Ingredient. "taco_key" is the position of the ingredient in its taco
+
+create table if not exists Ingredient_Ref (
+    ingredient varchar(16) not null references Ingredient(id),
+    taco bigint not null references Taco(id),
+    taco_key bigint not null
+);
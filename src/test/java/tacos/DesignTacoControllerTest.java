@@ -0,0 +1,72 @@
+package tacos;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// The design form, the binding of ingredient ids to Ingredients and the @TacoIngredients validation,
+// all the way through the application context.
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class DesignTacoControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testDesignPage() throws Exception {
+        mockMvc.perform(get("/design"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("design"))
+                .andExpect(content().string(containsString("Flour Tortilla")))
+                .andExpect(content().string(containsString("value=\"FLTO\"")));
+    }
+
+    // A proposed taco has some ingredients, which show up as checked boxes
+
+    @Test
+    public void testProposePage() throws Exception {
+        mockMvc.perform(get("/propose"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("design"))
+                .andExpect(content().string(containsString("checked=\"checked\"")));
+    }
+
+    @Test
+    public void testPostValidTaco() throws Exception {
+        mockMvc.perform(post("/design")
+                        .param("name", "Good Taco")
+                        .param("ingredients", "FLTO", "GRBF", "chED", "SLSA"))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/orders/current"));
+    }
+
+    @Test
+    public void testPostInvalidTaco() throws Exception {
+        mockMvc.perform(post("/design")
+                        .param("name", "Bad Taco")
+                        .param("ingredients", "FLTO", "COTO", "SLSA", "SRCR", "NOPE"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("design"))
+                .andExpect(model().attributeHasFieldErrors("taco", "ingredients"))
+                .andExpect(content().string(containsString("Select at most one wrap")));
+    }
+
+    @Test
+    public void testPostTacoWithoutWrap() throws Exception {
+        mockMvc.perform(post("/design")
+                        .param("name", "Bad Taco")
+                        .param("_ingredients", "on"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("design"))
+                .andExpect(content().string(containsString("Select at least one wrap")));
+    }
+}
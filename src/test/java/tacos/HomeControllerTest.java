@@ -6,8 +6,12 @@ package tacos;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.web.servlet.MockMvc;
+import tacos.model.ingredients.IngredientCatalog;
 import tacos.web.HomeController;
+import tacos.web.common.PageETags;
 
 import static org.hamcrest.Matchers.containsString;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -16,11 +20,17 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 // https://docs.spring.io/spring-framework/docs/current/javadoc-api/org/springframework/test/web/servlet/MockMvc.html
 
 @WebMvcTest(HomeController.class)
+@Import(PageETags.class)
 public class HomeControllerTest {
 
     @Autowired
     private MockMvc mockMvc;
 
+    // The web slice picks up the IngredientByIdConverter, which needs the catalog
+
+    @MockBean
+    private IngredientCatalog ingredientCatalog;
+
     @Test
     public void testHomePage() throws Exception {
         mockMvc.perform(get("/"))
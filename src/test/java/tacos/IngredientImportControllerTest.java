@@ -0,0 +1,60 @@
+package tacos;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// The import endpoint, through the application context (it is off by default)
+
+@SpringBootTest(properties = "tacos.ingredients.import-enabled=true")
+@AutoConfigureMockMvc
+public class IngredientImportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testImportJson() throws Exception {
+        mockMvc.perform(post("/ingredients/import")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"id\": \"ICTA\", \"name\": \"Nopales\", \"type\": \"VEGGIES\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Imported 1 ingredients\n"));
+    }
+
+    @Test
+    public void testImportBadCsv() throws Exception {
+        mockMvc.perform(post("/ingredients/import")
+                        .contentType("text/csv")
+                        .content("ICTB,Nopales\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(startsWith("Nothing imported: line 1:")));
+    }
+
+    @Test
+    public void testImportBadJson() throws Exception {
+        mockMvc.perform(post("/ingredients/import")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"id\": \"ICTC\", "))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(startsWith("Nothing imported: element 1:")));
+    }
+
+    // Too long for the columns: rejected before it gets to the database
+
+    @Test
+    public void testImportOverlongRow() throws Exception {
+        mockMvc.perform(post("/ingredients/import")
+                        .contentType("text/csv")
+                        .content("ICTD,Nopales,VEGGIES\nICTE_IS_FAR_TOO_LONG,Nopales,VEGGIES\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(startsWith("Nothing imported: line 2: id is longer than 16")));
+    }
+}
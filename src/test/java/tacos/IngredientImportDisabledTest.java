@@ -0,0 +1,29 @@
+package tacos;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Without "tacos.ingredients.import-enabled", there is no import endpoint
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class IngredientImportDisabledTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testImportIsNotExposed() throws Exception {
+        mockMvc.perform(post("/ingredients/import")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"id\": \"IDTA\", \"name\": \"Nopales\", \"type\": \"VEGGIES\"}]"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,96 @@
+package tacos;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.web.servlet.MockMvc;
+import tacos.model.taco.TacoOrder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// The order form, its validation and the saving of orders (through the write-behind queue),
+// all the way through the application context and into the embedded database.
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class OrderControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // The order form comes pre-filled with valid data (except for an expiration date that
+    // may have passed by now); the order is queued for saving
+
+    @Test
+    public void testPostOrder() throws Exception {
+        mockMvc.perform(post("/orders")
+                        .sessionAttr("tacoOrder", new TacoOrder())
+                        .param("ccInfo.ccExpiration", "12/2080"))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/"));
+    }
+
+    // Every field at the longest length that validation allows: the order must fit the columns
+
+    @Test
+    public void testPostMaximalOrder() throws Exception {
+        final String tacoName = "T".repeat(50);
+        final String street = "S".repeat(49) + "!";
+        final MockHttpSession session = new MockHttpSession();
+        mockMvc.perform(post("/design").session(session)
+                        .param("name", tacoName)
+                        .param("ingredients", "FLTO", "GRBF", "CHED", "SLSA"))
+                .andExpect(status().is3xxRedirection());
+        mockMvc.perform(post("/orders").session(session)
+                        .param("deliveryAddress.name", "N".repeat(50))
+                        .param("deliveryAddress.street", street)
+                        .param("deliveryAddress.city", "C".repeat(50))
+                        .param("deliveryAddress.state", "S".repeat(20))
+                        .param("deliveryAddress.zip", "Z".repeat(10))
+                        .param("ccInfo.ccNumber", "4532015112830361238")
+                        .param("ccInfo.ccExpiration", "   12  /  2080  ")
+                        .param("ccInfo.ccCVV", "999"))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/"));
+        assertEquals(tacoName, awaitSaved("select t.name from Taco t join Taco_Order o on t.taco_order = o.id"
+                + " where o.delivery_street = '" + street + "'"));
+    }
+
+    // Longer than the column: a validation error, not a failing insert
+
+    @Test
+    public void testPostOverlongOrder() throws Exception {
+        final MockHttpSession session = new MockHttpSession();
+        mockMvc.perform(post("/design").session(session)
+                        .param("name", "Short Taco")
+                        .param("ingredients", "FLTO", "GRBF"))
+                .andExpect(status().is3xxRedirection());
+        mockMvc.perform(post("/orders").session(session)
+                        .param("deliveryAddress.zip", "Z".repeat(11))
+                        .param("ccInfo.ccExpiration", "12/2080"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("orderForm"))
+                .andExpect(model().attributeHasFieldErrors("tacoOrder", "deliveryAddress.zip"));
+    }
+
+    // The order is saved by the background writer; wait for it
+
+    private String awaitSaved(String query) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            final var names = jdbcTemplate.queryForList(query, String.class);
+            if (!names.isEmpty()) {
+                return names.get(0);
+            }
+            Thread.sleep(50);
+        }
+        return null;
+    }
+}
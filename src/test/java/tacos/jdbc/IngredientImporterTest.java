@@ -0,0 +1,100 @@
+package tacos.jdbc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import tacos.model.ingredients.IngredientCatalog;
+import tacos.model.ingredients.source.IngredientsSourceJdbc;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Imports go into the database in one go, and the catalog sees them afterwards.
+// The catalog is shared by all tests (and never drops ingredients), hence the relative sizes.
+
+@JdbcTest(properties = "tacos.jdbc.batch-size=2")
+@Import({JdbcIngredientRepository.class, IngredientsSourceJdbc.class, IngredientCatalog.class, SimpleMeterRegistry.class})
+class IngredientImporterTest {
+
+    @Autowired
+    private JdbcIngredientRepository repository;
+
+    @Autowired
+    private IngredientCatalog catalog;
+
+    private IngredientImporter importer;
+
+    @BeforeEach
+    void setup() {
+        importer = new IngredientImporter(repository, catalog, new ObjectMapper());
+        catalog.get(); // loaded, so that refresh() does something
+    }
+
+    private static InputStream input(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void importCsv() throws IOException {
+        final String csv = """
+                id,name,type
+                # comment
+                imca, Pico de Gallo, sauce
+
+                IMCB,Rice, Beans, and more,VEGGIES
+                IMCC,Queso Fresco,CHEESE
+                """;
+        final int sizeBefore = catalog.get().size();
+        assertEquals(3, importer.importCsv(input(csv)));
+        assertAll(
+                () -> assertEquals(sizeBefore + 3, catalog.get().size()),
+                () -> assertEquals("Pico de Gallo", catalog.get().findById("IMCA").getName()),
+                () -> assertEquals("Rice, Beans, and more", catalog.get().findById("IMCB").getName())
+        );
+    }
+
+    @Test
+    void importJson() throws IOException {
+        final String json = """
+                [ {"id": "IMJA", "name": "Chorizo", "type": "PROTEIN"},
+                  {"id": "SLSA", "name": "Salsa Roja", "type": "SAUCE"} ]
+                """;
+        final int sizeBefore = catalog.get().size();
+        assertEquals(2, importer.importJson(input(json)));
+        assertAll(
+                () -> assertEquals(sizeBefore + 1, catalog.get().size()),
+                () -> assertEquals("Salsa Roja", catalog.get().findById("SLSA").getName())
+        );
+    }
+
+    @Test
+    void badRowImportsNothing() {
+        final String csv = """
+                IMBA,Good,WRAP
+                IMBB,Good,WRAP
+                IMBC,Good,WRAP
+                IMBD,Bad,DESSERT
+                """;
+        final IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> importer.importCsv(input(csv)));
+        assertTrue(ex.getMessage().startsWith("line 4:"), ex.getMessage());
+    }
+
+    @Test
+    void rowsMustFitTheColumns() {
+        final String longName = "N".repeat(65);
+        final String json = "[{\"id\": \"IMLA\", \"name\": \"" + longName + "\", \"type\": \"SAUCE\"}]";
+        final IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> importer.importJson(input(json)));
+        assertEquals("element 1: name is longer than 64 characters", ex.getMessage());
+        // at the limits, after stripping and uppercasing
+        assertEquals(1, assertDoesNotThrow(() -> importer.importCsv(input(" imla_16_chars_ok," + "N".repeat(64) + " ,SAUCE"))));
+        assertEquals("N".repeat(64), catalog.get().findById("IMLA_16_CHARS_OK").getName());
+    }
+}
@@ -0,0 +1,91 @@
+package tacos.jdbc;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DuplicateKeyException;
+import tacos.model.ingredients.Ingredient;
+import tacos.model.ingredients.IngredientId;
+import tacos.model.ingredients.IngredientRelation;
+import tacos.model.ingredients.IngredientType;
+import tacos.model.ingredients.source.IngredientsSourceJdbc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The streaming reads see the same rows as findAll() (the ones from "data.sql"),
+// here with a fetch size smaller than the table. Bulk writes go in several batches.
+
+@JdbcTest(properties = {"tacos.jdbc.fetch-size=3", "tacos.jdbc.batch-size=4"})
+@Import({JdbcIngredientRepository.class, IngredientsSourceJdbc.class, SimpleMeterRegistry.class})
+class JdbcIngredientRepositoryTest {
+
+    @Autowired
+    private JdbcIngredientRepository repository;
+
+    @Autowired
+    private IngredientsSourceJdbc source;
+
+    @Test
+    void streamAllAndForEachSeeAllRows() {
+        final List<Ingredient> all = repository.findAll();
+        final List<Ingredient> streamed;
+        try (Stream<Ingredient> stream = repository.streamAll()) {
+            streamed = stream.toList();
+        }
+        final List<Ingredient> pushed = new ArrayList<>();
+        repository.forEach(pushed::add);
+        assertAll(
+                () -> assertEquals(10, all.size()),
+                () -> assertEquals(all, streamed),
+                () -> assertEquals(all, pushed)
+        );
+    }
+
+    @Test
+    void relationIsBuiltFromTheStream() {
+        final IngredientRelation relation = source.refresh();
+        assertAll(
+                () -> assertEquals(10, relation.size()),
+                () -> assertEquals("Salsa", relation.findById("slsa").getName())
+        );
+    }
+
+    private static List<Ingredient> makeIngredients(String prefix, int count) {
+        final List<Ingredient> res = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            res.add(new Ingredient(IngredientId.of(prefix + i), "Bulk " + i, IngredientType.VEGGIES));
+        }
+        return res;
+    }
+
+    @Test
+    void saveAllInsertsInBatches() {
+        repository.saveAll(makeIngredients("JRSV", 9));
+        assertEquals(19, repository.findAll().size());
+    }
+
+    @Test
+    void saveAllRejectsExistingIds() {
+        final List<Ingredient> ingredients = makeIngredients("JRSD", 3);
+        ingredients.add(new Ingredient(IngredientId.of("SLSA"), "Salsa", IngredientType.SAUCE));
+        assertThrows(DuplicateKeyException.class, () -> repository.saveAll(ingredients));
+    }
+
+    @Test
+    void upsertAllInsertsAndUpdates() {
+        final Stream<IngredientRow> rows = Stream.concat(
+                makeIngredients("JRUP", 6).stream().map(IngredientRow::of),
+                Stream.of(new IngredientRow("SLSA", "Salsa Verde", IngredientType.SAUCE)));
+        assertEquals(7, repository.upsertAll(rows));
+        assertAll(
+                () -> assertEquals(16, repository.findAll().size()),
+                () -> assertEquals("Salsa Verde", repository.findById(IngredientId.of("SLSA")).orElseThrow().getName())
+        );
+    }
+}
@@ -0,0 +1,113 @@
+package tacos.jdbc;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tacos.model.ingredients.IngredientId;
+import tacos.model.ingredients.IngredientRelation;
+import tacos.model.ingredients.source.IngredientsSourceHardcoded;
+import tacos.model.taco.Taco;
+import tacos.model.taco.TacoOrder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Orders, tacos and ingredient references go into the embedded H2 (set up by "schema.sql"
+// and "data.sql"). Each test runs in a transaction that is rolled back at the end.
+
+@JdbcTest(properties = "logging.level.tacos.model=WARN") // the taco beans log their creation
+@Import({JdbcOrderRepository.class, SimpleMeterRegistry.class})
+class JdbcOrderRepositoryTest {
+
+    private final static IngredientRelation relation = new IngredientsSourceHardcoded().refresh();
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private static Taco makeTaco(String name, String... ids) {
+        final Taco taco = new Taco();
+        taco.setName(name);
+        for (String id : ids) {
+            taco.getIngredients().add(relation.getById(IngredientId.of(id)).orElseThrow());
+        }
+        return taco;
+    }
+
+    private static TacoOrder makeOrder(int tacoCount) {
+        final TacoOrder order = new TacoOrder();
+        for (int i = 0; i < tacoCount; i++) {
+            order.addTaco(makeTaco("Taco number " + i, "FLTO", "GRBF", "CHED", "SLSA"));
+        }
+        return order;
+    }
+
+    private long count(String table) {
+        return jdbcTemplate.queryForObject("select count(*) from " + table, Long.class);
+    }
+
+    @Test
+    void saveSetsIdsAndInsertsAllRows() {
+        final TacoOrder order = new TacoOrder();
+        order.addTaco(makeTaco("Beefy Taco", "FLTO", "GRBF", "SLSA"));
+        order.addTaco(makeTaco("Cheesy Taco", "COTO", "CHED", "JACK", "SRCR"));
+        orderRepository.save(order);
+        assertNotNull(order.getId());
+        assertNotNull(order.getPlacedAt());
+        final Taco cheesy = order.getTacos().get("Cheesy Taco");
+        assertNotNull(cheesy.getId());
+        assertAll(
+                () -> assertEquals(1, count("Taco_Order")),
+                () -> assertEquals(2, count("Taco")),
+                () -> assertEquals(7, count("Ingredient_Ref")),
+                () -> assertEquals(order.getId(), jdbcTemplate.queryForObject(
+                        "select taco_order from Taco where id = ?", Long.class, cheesy.getId())),
+                () -> assertEquals(1L, jdbcTemplate.queryForObject(
+                        "select taco_order_key from Taco where id = ?", Long.class, cheesy.getId())),
+                () -> assertEquals(List.of("CHED", "COTO", "JACK", "SRCR"),
+                        jdbcTemplate.queryForList("select ingredient from Ingredient_Ref where taco = ? order by ingredient",
+                                String.class, cheesy.getId()))
+        );
+    }
+
+    @Test
+    void saveAllAssignsDistinctIds() {
+        final List<TacoOrder> orders = List.of(makeOrder(2), makeOrder(3), makeOrder(1));
+        orderRepository.saveAll(orders);
+        assertAll(
+                () -> assertEquals(3, orders.stream().map(TacoOrder::getId).distinct().count()),
+                () -> assertEquals(6, orders.stream().flatMap(o -> o.getTacos().values().stream()).map(Taco::getId).distinct().count()),
+                () -> assertEquals(3, count("Taco_Order")),
+                () -> assertEquals(6, count("Taco")),
+                () -> assertEquals(24, count("Ingredient_Ref"))
+        );
+    }
+
+    // Many orders in one saveAll(): nothing lost in the batches. The speed of save() against
+    // saveAll() is measured by the OrderRepositoryBenchmark (src/jmh).
+
+    @Test
+    void saveAllOfManyOrdersLosesNothing() {
+        final int orderCount = 500;
+        final int tacosPerOrder = 3;
+        final List<TacoOrder> orders = new ArrayList<>(orderCount);
+        for (int i = 0; i < orderCount; i++) {
+            orders.add(makeOrder(tacosPerOrder));
+        }
+        orderRepository.save(orders.get(0));
+        orderRepository.saveAll(orders.subList(1, orderCount));
+        assertAll(
+                () -> assertEquals(orderCount, count("Taco_Order")),
+                () -> assertEquals(orderCount * tacosPerOrder, count("Taco")),
+                () -> assertEquals(orderCount * tacosPerOrder * 4L, count("Ingredient_Ref")),
+                () -> assertEquals(orderCount, orders.stream().map(TacoOrder::getId).distinct().count())
+        );
+    }
+}
@@ -0,0 +1,150 @@
+package tacos.jdbc;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import tacos.model.taco.TacoOrder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The writer saves orders in batches, saves everything left on stop, and the
+// queue refuses orders once it is full. Failed batches are saved order by order: an order
+// that breaks a constraint is dropped at once, other failures are retried.
+
+class OrderWriteBehindQueueTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    // Records the batches; each saveAll() waits for "gate" to open
+
+    private static class RecordingRepository implements OrderRepository {
+
+        final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+
+        final CountDownLatch gate;
+
+        RecordingRepository(CountDownLatch gate) {
+            this.gate = gate;
+        }
+
+        @Override
+        public TacoOrder save(TacoOrder order) {
+            return saveAll(List.of(order)).get(0);
+        }
+
+        @Override
+        public List<TacoOrder> saveAll(List<TacoOrder> orders) {
+            try {
+                gate.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            batchSizes.add(orders.size());
+            return orders;
+        }
+    }
+
+    @Test
+    void ordersAreSavedInBatchesAndDrainedOnStop() throws InterruptedException {
+        final CountDownLatch gate = new CountDownLatch(1);
+        final RecordingRepository repository = new RecordingRepository(gate);
+        final OrderWriteBehindQueue queue = new OrderWriteBehindQueue(repository, registry, 100, 10, 0, false);
+        queue.start();
+        for (int i = 0; i < 41; i++) {
+            assertTrue(queue.offer(new TacoOrder()));
+        }
+        gate.countDown();
+        queue.stop();
+        assertAll(
+                () -> assertEquals(41, repository.batchSizes.stream().mapToInt(Integer::intValue).sum()),
+                () -> assertTrue(repository.batchSizes.stream().allMatch(size -> size <= 10)),
+                () -> assertTrue(repository.batchSizes.size() < 41, "some orders were grouped"),
+                () -> assertEquals(0, queue.getDepth()),
+                () -> assertEquals(41, registry.find("tacos.orders.batch.size").summary().totalAmount()),
+                () -> assertFalse(queue.offer(new TacoOrder()), "stopped")
+        );
+    }
+
+    @Test
+    void fullQueueRefusesOrders() throws InterruptedException {
+        final CountDownLatch gate = new CountDownLatch(1);
+        final OrderWriteBehindQueue queue = new OrderWriteBehindQueue(new RecordingRepository(gate), registry, 4, 10, 10, false);
+        queue.start();
+        int accepted = 0;
+        for (int i = 0; i < 20; i++) {
+            if (queue.offer(new TacoOrder())) {
+                accepted++;
+            }
+        }
+        // 4 in the queue plus at most one batch of 10 taken by the (blocked) writer
+        final int acceptedFinal = accepted;
+        assertAll(
+                () -> assertTrue(4 <= acceptedFinal && acceptedFinal <= 14, "accepted " + acceptedFinal),
+                () -> assertEquals(20 - acceptedFinal, registry.find("tacos.orders.rejected").counter().count())
+        );
+        gate.countDown();
+        queue.stop();
+    }
+
+    // Batches always fail; the order named "invalid" breaks a constraint, the order named
+    // "flaky" fails once for a passing reason
+
+    private static class FailingRepository implements OrderRepository {
+
+        final List<String> saved = Collections.synchronizedList(new ArrayList<>());
+
+        final AtomicInteger invalidAttempts = new AtomicInteger();
+
+        final AtomicInteger flakyAttempts = new AtomicInteger();
+
+        @Override
+        public TacoOrder save(TacoOrder order) {
+            final String name = order.getDeliveryAddress().getName();
+            if (name.equals("invalid")) {
+                invalidAttempts.incrementAndGet();
+                throw new DataIntegrityViolationException("value too long");
+            }
+            if (name.equals("flaky") && flakyAttempts.incrementAndGet() == 1) {
+                throw new TransientDataAccessResourceException("connection reset");
+            }
+            saved.add(name);
+            return order;
+        }
+
+        @Override
+        public List<TacoOrder> saveAll(List<TacoOrder> orders) {
+            throw new DataIntegrityViolationException("some order in the batch is too long");
+        }
+    }
+
+    private static TacoOrder orderFor(String name) {
+        final TacoOrder order = new TacoOrder();
+        order.getDeliveryAddress().setName(name);
+        return order;
+    }
+
+    @Test
+    void constraintFailuresAreNotRetried() throws InterruptedException {
+        final FailingRepository repository = new FailingRepository();
+        final OrderWriteBehindQueue queue = new OrderWriteBehindQueue(repository, registry, 100, 10, 0, false);
+        queue.start();
+        for (String name : new String[]{"good", "invalid", "flaky"}) {
+            assertTrue(queue.offer(orderFor(name)));
+        }
+        queue.stop();
+        assertAll(
+                () -> assertEquals(List.of("good", "flaky"), repository.saved),
+                () -> assertEquals(1, repository.invalidAttempts.get(), "not retried"),
+                () -> assertEquals(2, repository.flakyAttempts.get(), "retried"),
+                () -> assertEquals(1, registry.find("tacos.orders.invalid").counter().count()),
+                () -> assertEquals(0, registry.find("tacos.orders.failed").counter().count())
+        );
+    }
+}
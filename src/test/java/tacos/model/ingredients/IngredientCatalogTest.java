@@ -0,0 +1,103 @@
+package tacos.model.ingredients;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The IngredientCatalog swaps in a new snapshot on refresh, never drops ingredients
+// and keeps unchanged ingredient instances.
+
+class IngredientCatalogTest {
+
+    private static Ingredient make(String id, String name, IngredientType type) {
+        return new Ingredient(new IngredientId(id), name, type);
+    }
+
+    // A source whose content can be changed between refreshes
+
+    private static class MutableSource implements IngredientsSource {
+
+        final List<Ingredient> ingredients = new ArrayList<>();
+
+        int refreshCount = 0;
+
+        @Override
+        public IngredientRelation refresh() {
+            refreshCount++;
+            return new IngredientRelation(ingredients);
+        }
+    }
+
+    @Test
+    void initialLoadIsLazyAndMemoized() {
+        final MutableSource source = new MutableSource();
+        source.ingredients.add(make("FLTO", "Flour Tortilla", IngredientType.WRAP));
+        final IngredientCatalog catalog = new IngredientCatalog(source);
+        assertEquals(0, source.refreshCount);
+        final IngredientRelation first = catalog.get();
+        assertAll(
+                () -> assertSame(first, catalog.get()),
+                () -> assertEquals(1, source.refreshCount)
+        );
+    }
+
+    @Test
+    void unchangedSourceKeepsSnapshot() {
+        final MutableSource source = new MutableSource();
+        source.ingredients.add(make("FLTO", "Flour Tortilla", IngredientType.WRAP));
+        final IngredientCatalog catalog = new IngredientCatalog(source);
+        final IngredientRelation before = catalog.get();
+        catalog.refresh();
+        assertSame(before, catalog.get());
+    }
+
+    @Test
+    void changedSourceSwapsSnapshot() {
+        final MutableSource source = new MutableSource();
+        source.ingredients.add(make("FLTO", "Flour Tortilla", IngredientType.WRAP));
+        final IngredientCatalog catalog = new IngredientCatalog(source);
+        final IngredientRelation before = catalog.get();
+        final Ingredient flto = before.getById("FLTO").orElseThrow();
+        source.ingredients.add(make("SLSA", "Salsa", IngredientType.SAUCE));
+        catalog.refresh();
+        final IngredientRelation after = catalog.get();
+        assertAll(
+                () -> assertNotSame(before, after),
+                () -> assertEquals(1, before.size()), // old snapshot is untouched
+                () -> assertEquals(2, after.size()),
+                () -> assertSame(flto, after.getById("FLTO").orElseThrow()) // instance is reused
+        );
+    }
+
+    @Test
+    void disappearedIngredientsAreRetained() {
+        final MutableSource source = new MutableSource();
+        source.ingredients.add(make("FLTO", "Flour Tortilla", IngredientType.WRAP));
+        source.ingredients.add(make("SLSA", "Salsa", IngredientType.SAUCE));
+        final IngredientCatalog catalog = new IngredientCatalog(source);
+        catalog.get();
+        source.ingredients.remove(1);
+        source.ingredients.set(0, make("FLTO", "Flour Tortilla XL", IngredientType.WRAP));
+        catalog.refresh();
+        final IngredientRelation after = catalog.get();
+        assertAll(
+                () -> assertEquals(2, after.size()),
+                () -> assertTrue(after.getById("SLSA").isPresent()),
+                () -> assertEquals("Flour Tortilla XL", after.getById("FLTO").orElseThrow().getName())
+        );
+    }
+
+    @Test
+    void failingSourceKeepsSnapshot() {
+        final MutableSource source = new MutableSource();
+        source.ingredients.add(make("FLTO", "Flour Tortilla", IngredientType.WRAP));
+        final IngredientCatalog catalog = new IngredientCatalog(source);
+        final IngredientRelation before = catalog.get();
+        source.ingredients.add(make("flto", "Clash", IngredientType.WRAP)); // makes refresh() throw
+        catalog.refresh();
+        assertSame(before, catalog.get());
+    }
+}
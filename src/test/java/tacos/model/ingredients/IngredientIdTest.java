@@ -0,0 +1,71 @@
+package tacos.model.ingredients;
+
+import org.junit.jupiter.api.Test;
+import tacos.model.ingredients.source.IngredientsSourceHardcoded;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// IngredientId.of() hands out canonical instances; IngredientRelation.findById()
+// accepts any CharSequence.
+
+class IngredientIdTest {
+
+    @Test
+    void internedInstancesAreCanonical() {
+        final IngredientId id = IngredientId.of("ABCD");
+        assertAll(
+                () -> assertSame(id, IngredientId.of("ABCD")),
+                () -> assertSame(id, IngredientId.of("abcd")),
+                () -> assertSame(id, IngredientId.of("  aBcD ")),
+                () -> assertEquals(new IngredientId("abcd"), id),
+                () -> assertEquals("ABCD", id.getRaw())
+        );
+    }
+
+    @Test
+    void blankIsRejected() {
+        assertAll(
+                () -> assertThrows(IllegalArgumentException.class, () -> IngredientId.of("  ")),
+                () -> assertThrows(IllegalArgumentException.class, () -> new IngredientId(""))
+        );
+    }
+
+    @Test
+    void normalizedCheck() {
+        assertAll(
+                () -> assertTrue(IngredientId.isNormalized("FLTO")),
+                () -> assertTrue(IngredientId.isNormalized("X-12")),
+                () -> assertFalse(IngredientId.isNormalized("flto")),
+                () -> assertFalse(IngredientId.isNormalized(" FLTO")),
+                () -> assertFalse(IngredientId.isNormalized("")),
+                () -> assertFalse(IngredientId.isNormalized("éTÉ"))
+        );
+    }
+
+    @Test
+    void findByCharSequence() {
+        final IngredientRelation relation = new IngredientsSourceHardcoded().refresh();
+        final Ingredient salsa = relation.getById(IngredientId.of("SLSA")).orElseThrow();
+        assertAll(
+                () -> assertSame(salsa, relation.findById("SLSA")),
+                () -> assertSame(salsa, relation.findById(" slsa\t")),
+                () -> assertSame(salsa, relation.findById(new StringBuilder("sLsA"))),
+                () -> assertNull(relation.findById("SLS")),
+                () -> assertNull(relation.findById("SLSAX")),
+                () -> assertNull(relation.findById("   ")),
+                () -> assertNull(relation.findById("é"))
+        );
+    }
+
+    // Raw input that takes the non-ASCII path of findById() does not end up in the intern table
+
+    @Test
+    void lookupsDoNotIntern() {
+        final IngredientRelation relation = new IngredientsSourceHardcoded().refresh();
+        final int sizeBefore = IngredientId.internTableSize();
+        for (int i = 0; i < 100; i++) {
+            assertNull(relation.findById("ünknown-" + i));
+        }
+        assertEquals(sizeBefore, IngredientId.internTableSize());
+    }
+}
@@ -0,0 +1,99 @@
+package tacos.model.ingredients;
+
+import org.junit.jupiter.api.Test;
+import tacos.model.ingredients.source.IngredientsSourceHardcoded;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The IngredientRelation is an immutable snapshot; queries hand out precomputed views.
+
+class IngredientRelationTest {
+
+    private final IngredientRelation relation = new IngredientsSourceHardcoded().refresh();
+
+    @Test
+    void typesOccurringAreInEnumOrderAndCached() {
+        final List<IngredientType> types = relation.getTypesOccurring();
+        assertAll(
+                () -> assertEquals(List.of(IngredientType.values()), types),
+                () -> assertSame(types, relation.getTypesOccurring()),
+                () -> assertThrows(UnsupportedOperationException.class, () -> types.add(IngredientType.WRAP))
+        );
+    }
+
+    @Test
+    void byTypeIsSortedByNameAndCached() {
+        final List<Ingredient> wraps = relation.getByType(IngredientType.WRAP);
+        assertAll(
+                () -> assertEquals(2, wraps.size()),
+                () -> assertEquals("Corn Tortilla", wraps.get(0).getName()),
+                () -> assertEquals("Flour Tortilla", wraps.get(1).getName()),
+                () -> assertSame(wraps, relation.getByType(IngredientType.WRAP)),
+                () -> assertThrows(UnsupportedOperationException.class, () -> wraps.remove(0))
+        );
+    }
+
+    @Test
+    void byTypeNameHasTheModelAttributes() {
+        final Map<String, List<Ingredient>> byTypeName = relation.getByTypeName();
+        assertAll(
+                () -> assertEquals(List.of("wrap", "protein", "veggies", "cheese", "sauce"), List.copyOf(byTypeName.keySet())),
+                () -> assertSame(relation.getByType(IngredientType.CHEESE), byTypeName.get("cheese")),
+                () -> assertSame(byTypeName, relation.getByTypeName()),
+                () -> assertThrows(UnsupportedOperationException.class, () -> byTypeName.remove("wrap"))
+        );
+    }
+
+    @Test
+    void emptyRelationHasNoTypes() {
+        final IngredientRelation empty = new IngredientRelation();
+        assertAll(
+                () -> assertTrue(empty.getTypesOccurring().isEmpty()),
+                () -> assertTrue(empty.getByType(IngredientType.CHEESE).isEmpty()),
+                () -> assertTrue(empty.getByTypeName().isEmpty()),
+                () -> assertEquals(0, empty.size())
+        );
+    }
+
+    @Test
+    void clashingIdsAreRejected() {
+        final Ingredient a = new Ingredient(new IngredientId("ABCD"), "A", IngredientType.CHEESE);
+        final Ingredient b = new Ingredient(new IngredientId("abcd"), "B", IngredientType.SAUCE);
+        assertThrows(IllegalStateException.class, () -> new IngredientRelation(List.of(a, b)));
+    }
+
+    @Test
+    void fingerprintDependsOnContentOnly() {
+        final List<Ingredient> ingredients = relation.getIngredientStream().toList();
+        final List<Ingredient> reversed = new ArrayList<>(ingredients);
+        Collections.reverse(reversed);
+        final Ingredient extra = new Ingredient(new IngredientId("FPRT"), "Extra", IngredientType.SAUCE);
+        final Ingredient renamed = new Ingredient(new IngredientId("FPRT"), "Renamed", IngredientType.SAUCE);
+        final long withExtra = new IngredientRelation(concat(ingredients, extra)).getFingerprint();
+        final long withRenamed = new IngredientRelation(concat(ingredients, renamed)).getFingerprint();
+        assertAll(
+                () -> assertEquals(relation.getFingerprint(), new IngredientRelation(reversed).getFingerprint()),
+                () -> assertNotEquals(relation.getFingerprint(), withExtra),
+                () -> assertNotEquals(withExtra, withRenamed)
+        );
+    }
+
+    private static List<Ingredient> concat(List<Ingredient> list, Ingredient ingredient) {
+        final List<Ingredient> res = new ArrayList<>(list);
+        res.add(ingredient);
+        return res;
+    }
+
+    @Test
+    void lookupById() {
+        assertAll(
+                () -> assertEquals("Salsa", relation.getById(" slsa ").orElseThrow().getName()),
+                () -> assertTrue(relation.getById("NOPE").isEmpty())
+        );
+    }
+}
@@ -0,0 +1,105 @@
+package tacos.model.ingredients;
+
+import org.junit.jupiter.api.Test;
+import tacos.model.ingredients.source.IngredientsSourceHardcoded;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// IngredientSet is a Set<Ingredient> backed by a bitmask over ingredient ordinals.
+
+class IngredientSetTest {
+
+    private final IngredientRelation relation = new IngredientsSourceHardcoded().refresh();
+
+    private Ingredient get(String id) {
+        return relation.findById(id);
+    }
+
+    @Test
+    void behavesLikeASet() {
+        final IngredientSet set = new IngredientSet();
+        assertTrue(set.isEmpty());
+        assertTrue(set.add(get("FLTO")));
+        assertFalse(set.add(get("FLTO")));
+        assertTrue(set.add(get("SLSA")));
+        assertAll(
+                () -> assertEquals(2, set.size()),
+                () -> assertTrue(set.contains(get("flto"))),
+                () -> assertFalse(set.contains(get("COTO"))),
+                () -> assertFalse(set.contains("FLTO")),
+                () -> assertEquals(Set.of(get("FLTO"), get("SLSA")), set),
+                () -> assertEquals(set, new HashSet<>(List.of(get("SLSA"), get("FLTO")))),
+                () -> assertEquals(Set.of(get("FLTO"), get("SLSA")).hashCode(), set.hashCode())
+        );
+        assertTrue(set.remove(get("FLTO")));
+        assertFalse(set.remove(get("FLTO")));
+        assertEquals(Set.of(get("SLSA")), set);
+        set.clear();
+        assertTrue(set.isEmpty());
+    }
+
+    @Test
+    void iteratorSupportsRemoval() {
+        final IngredientSet set = IngredientSet.copyOf(relation.getIngredientStream().toList());
+        assertEquals(relation.size(), set.size());
+        final Iterator<Ingredient> iter = set.iterator();
+        while (iter.hasNext()) {
+            if (iter.next().getType() == IngredientType.WRAP) {
+                iter.remove();
+            }
+        }
+        assertAll(
+                () -> assertEquals(relation.size() - 2, set.size()),
+                () -> assertTrue(set.stream().noneMatch(ingredient -> ingredient.getType() == IngredientType.WRAP)),
+                () -> assertEquals(2, set.stream().filter(ingredient -> ingredient.getType() == IngredientType.SAUCE).count())
+        );
+    }
+
+    @Test
+    void manyOrdinals() {
+        final List<Ingredient> many = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            many.add(new Ingredient(IngredientId.of(String.format("SETTEST%03d", i)), "Test " + i, IngredientType.VEGGIES));
+        }
+        final IngredientSet set = IngredientSet.copyOf(many);
+        final IngredientSet copy = IngredientSet.copyOf(set);
+        copy.remove(many.get(150));
+        assertAll(
+                () -> assertEquals(200, set.size()),
+                () -> assertEquals(new HashSet<>(many), set),
+                () -> assertTrue(set.containsAll(many)),
+                () -> assertEquals(199, copy.size()),
+                () -> assertFalse(copy.contains(many.get(150))),
+                () -> assertTrue(set.contains(many.get(150))),
+                () -> assertEquals(99, many.subList(100, 200).stream().filter(copy::contains).count())
+        );
+    }
+
+    // The set hands out the instances that were added, whatever relations are built later
+
+    @Test
+    void membersAreTheAddedInstances() {
+        final IngredientSet set = IngredientSet.copyOf(List.of(get("SLSA"), get("FLTO")));
+        final IngredientRelation other = new IngredientRelation(List.of(
+                new Ingredient(IngredientId.of("FLTO"), "Another Tortilla", IngredientType.WRAP)));
+        final List<Ingredient> expected = new ArrayList<>(List.of(get("FLTO"), get("SLSA")));
+        expected.sort(Comparator.comparingInt(Ingredient::getOrdinal));
+        final Iterator<Ingredient> iter = set.iterator();
+        assertAll(
+                () -> assertSame(expected.get(0), iter.next()),
+                () -> assertSame(expected.get(1), iter.next()),
+                () -> assertTrue(set.contains(other.findById("FLTO"))), // equal by id
+                () -> assertEquals("Another Tortilla", other.getByOrdinal(get("FLTO").getOrdinal()).getName())
+        );
+    }
+
+    @Test
+    void nullsAreSkippedOnCopy() {
+        final Set<Ingredient> bound = new LinkedHashSet<>();
+        bound.add(get("CARN"));
+        bound.add(null);
+        assertEquals(Set.of(get("CARN")), IngredientSet.copyOf(bound));
+    }
+}
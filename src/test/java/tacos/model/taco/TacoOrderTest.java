@@ -0,0 +1,169 @@
+package tacos.model.taco;
+
+import org.junit.jupiter.api.Test;
+import tacos.model.ingredients.Ingredient;
+import tacos.model.ingredients.IngredientRelation;
+import tacos.model.ingredients.IngredientSet;
+import tacos.model.ingredients.source.IngredientsSourceHardcoded;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The TacoOrder kept in the session is compact and survives (de)serialization.
+
+class TacoOrderTest {
+
+    private final IngredientRelation relation = new IngredientsSourceHardcoded().refresh();
+
+    private Taco taco(String name, String... ids) {
+        final Taco res = new Taco();
+        res.setName(name);
+        final Set<Ingredient> ingredients = new IngredientSet();
+        for (String id : ids) {
+            ingredients.add(relation.findById(id));
+        }
+        res.setIngredients(ingredients);
+        return res;
+    }
+
+    private static byte[] serialize(Object obj) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(obj);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static TacoOrder deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return (TacoOrder) in.readObject();
+        }
+    }
+
+    @Test
+    void sectionsAreCreatedOnDemand() {
+        final TacoOrder order = new TacoOrder();
+        order.addTaco(taco("Plain Taco", "FLTO", "GRBF", "CHED", "LETC", "SLSA"));
+        assertTrue(order.toString().contains("ccInfo=null"), "toString() doesn't create the payment section");
+        assertTrue(order.toString().contains("deliveryAddress=null"));
+        assertEquals("4772687290188749", order.getCcInfo().getCcNumber());
+        assertSame(order.getCcInfo(), order.getCcInfo());
+        assertFalse(order.toString().contains("ccInfo=null"));
+    }
+
+    @Test
+    void tacoNamesAreSorted() {
+        final TacoOrder order = new TacoOrder();
+        assertTrue(order.getTacoNames().isEmpty());
+        order.addTaco(taco("Zesty Taco", "COTO", "CARN", "JACK", "TMTO", "SRCR"));
+        order.addTaco(taco("Basic Taco", "FLTO", "GRBF", "CHED", "LETC", "SLSA"));
+        assertEquals(List.of("Basic Taco", "Zesty Taco"), List.copyOf(order.getTacoNames()));
+        assertThrows(IllegalArgumentException.class, () -> order.addTaco(taco("Basic Taco", "FLTO")));
+        assertThrows(UnsupportedOperationException.class, () -> order.getTacos().clear());
+    }
+
+    @Test
+    void roundTrip() throws Exception {
+        final TacoOrder order = new TacoOrder();
+        order.addTaco(taco("Basic Taco", "FLTO", "GRBF", "CHED", "LETC", "SLSA"));
+        order.addTaco(taco("Zesty Taco", "COTO", "CARN", "JACK", "TMTO", "SRCR"));
+        order.getDeliveryAddress().setCity("Ys");
+        order.getDeliveryAddress().setZip(null);
+        order.setPlacedAt(new Date(1_700_000_000_000L));
+        final byte[] bytes = serialize(order);
+        final TacoOrder copy = deserialize(bytes);
+        assertAll(
+                () -> assertTrue(bytes.length < 512, "compact form, got " + bytes.length + " bytes"),
+                () -> assertEquals(order.getTacoNames(), copy.getTacoNames()),
+                () -> assertEquals(order.getTacos().get("Zesty Taco").getIngredients(), copy.getTacos().get("Zesty Taco").getIngredients()),
+                () -> assertEquals(order.getTacos().get("Basic Taco").getCreatedAt(), copy.getTacos().get("Basic Taco").getCreatedAt()),
+                () -> assertEquals(order.getPlacedAt(), copy.getPlacedAt()),
+                () -> assertTrue(copy.toString().contains("ccInfo=null"), "payment section stays absent"),
+                () -> assertEquals("Ys", copy.getDeliveryAddress().getCity()),
+                () -> assertNull(copy.getDeliveryAddress().getZip())
+        );
+    }
+
+    // The session file must not hold the card number or the CVV
+
+    @Test
+    void cardDataIsNotSerialized() throws Exception {
+        final TacoOrder order = new TacoOrder();
+        order.getCcInfo().setCcNumber("4532015112830361");
+        order.getCcInfo().setCcExpiration("11/2031");
+        order.getCcInfo().setCcCVV("987");
+        final byte[] bytes = serialize(order);
+        final String raw = new String(bytes, StandardCharsets.ISO_8859_1);
+        final TacoOrder copy = deserialize(bytes);
+        assertAll(
+                () -> assertFalse(raw.contains("4532015112830361")),
+                () -> assertFalse(raw.contains("987")),
+                () -> assertNull(copy.getCcInfo().getCcNumber()),
+                () -> assertNull(copy.getCcInfo().getCcCVV()),
+                () -> assertEquals("11/2031", copy.getCcInfo().getCcExpiration())
+        );
+    }
+
+    // Form input is bound into the session before validation, so it may be of any length
+
+    @Test
+    void longStringsRoundTrip() throws Exception {
+        final String street = "Calle Mayor ñ ".repeat(10_000); // well over 65535 bytes in UTF-8
+        final TacoOrder order = new TacoOrder();
+        order.addTaco(taco("T".repeat(70_000), "FLTO", "GRBF"));
+        order.getDeliveryAddress().setStreet(street);
+        final TacoOrder copy = deserialize(serialize(order));
+        assertAll(
+                () -> assertEquals(street, copy.getDeliveryAddress().getStreet()),
+                () -> assertEquals(order.getTacoNames(), copy.getTacoNames())
+        );
+    }
+
+    @Test
+    void emptyOrderRoundTrip() throws Exception {
+        final TacoOrder copy = deserialize(serialize(new TacoOrder()));
+        assertAll(
+                () -> assertTrue(copy.getTacoNames().isEmpty()),
+                () -> assertNull(copy.getPlacedAt()),
+                () -> assertNull(copy.getId())
+        );
+    }
+
+    // Only the current format is read; any other version fails at once
+
+    @Test
+    void otherFormatsAreRejected() throws Exception {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeByte(1);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertThrows(InvalidObjectException.class, () -> new TacoOrder().readExternal(in));
+        }
+    }
+
+    // The copy handed to the order writer shares nothing mutable with the session's order
+
+    @Test
+    void copyIsDetached() {
+        final TacoOrder order = new TacoOrder();
+        order.addTaco(taco("Beefy Taco", "FLTO", "GRBF", "SLSA"));
+        order.getDeliveryAddress().setName("Alice");
+        final TacoOrder copy = order.copy();
+        order.getDeliveryAddress().setName("Bob");
+        order.getCcInfo().setCcNumber("4532015112830361");
+        order.getTacos().get("Beefy Taco").getIngredients().remove(relation.findById("SLSA"));
+        order.addTaco(taco("Cheesy Taco", "COTO", "CHED"));
+        assertAll(
+                () -> assertEquals("Alice", copy.getDeliveryAddress().getName()),
+                () -> assertEquals("4772687290188749", copy.getCcInfo().getCcNumber()),
+                () -> assertEquals(List.of("Beefy Taco"), List.copyOf(copy.getTacoNames())),
+                () -> assertEquals(3, copy.getTacos().get("Beefy Taco").getIngredients().size())
+        );
+    }
+}
@@ -0,0 +1,56 @@
+package tacos.threads;
+
+import org.apache.catalina.connector.Connector;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// With "tacos.threads.virtual: true" (Java 21 only), Tomcat and the scheduler hand their
+// work to virtual threads, and the application still serves pages.
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "tacos.threads.virtual=true")
+@EnabledIf("tacos.threads.VirtualThreads#isSupported")
+public class VirtualThreadsConfigTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ServletWebServerApplicationContext context;
+
+    @Autowired
+    private ThreadPoolTaskScheduler taskScheduler;
+
+    @Test
+    void requestsRunOnVirtualThreads() throws Exception {
+        final Connector connector = ((TomcatWebServer) context.getWebServer()).getTomcat().getConnector();
+        final CompletableFuture<Thread> thread = new CompletableFuture<>();
+        connector.getProtocolHandler().getExecutor().execute(() -> thread.complete(Thread.currentThread()));
+        assertTrue(VirtualThreads.isVirtual(thread.get(10, TimeUnit.SECONDS)));
+        final HttpResponse<String> page = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/design")).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, page.statusCode());
+    }
+
+    @Test
+    void scheduledJobsRunOnVirtualThreads() throws Exception {
+        final CompletableFuture<Thread> thread = new CompletableFuture<>();
+        taskScheduler.execute(() -> thread.complete(Thread.currentThread()));
+        assertTrue(VirtualThreads.isVirtual(thread.get(10, TimeUnit.SECONDS)));
+    }
+}
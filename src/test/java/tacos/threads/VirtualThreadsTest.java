@@ -0,0 +1,33 @@
+package tacos.threads;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VirtualThreadsTest {
+
+    @Test
+    void platformThreadsUnlessAsked() {
+        final Thread thread = VirtualThreads.factory("platform-", false).newThread(() -> {
+        });
+        assertTrue(thread.getName().startsWith("platform-"));
+        assertFalse(VirtualThreads.isVirtual(thread));
+    }
+
+    // On Java 17 asking for virtual threads fails rather than silently giving platform ones
+
+    @Test
+    void virtualThreadsOnJava21Only() throws InterruptedException {
+        if (!VirtualThreads.isSupported()) {
+            assertThrows(IllegalStateException.class, () -> VirtualThreads.factory("virtual-", true));
+            return;
+        }
+        final boolean[] ran = new boolean[1];
+        final Thread thread = VirtualThreads.factory("virtual-", true).newThread(() -> ran[0] = true);
+        assertEquals("virtual-1", thread.getName());
+        assertTrue(VirtualThreads.isVirtual(thread));
+        thread.start();
+        thread.join();
+        assertTrue(ran[0]);
+    }
+}
@@ -0,0 +1,71 @@
+package tacos.validation;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.ConstraintValidatorContext;
+import org.junit.jupiter.api.Test;
+import tacos.model.ingredients.Ingredient;
+import tacos.model.ingredients.IngredientCatalog;
+import tacos.model.ingredients.IngredientId;
+import tacos.model.ingredients.IngredientRelation;
+import tacos.model.ingredients.IngredientSet;
+import tacos.model.ingredients.source.IngredientsSourceHardcoded;
+
+import java.lang.reflect.Proxy;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The validator gives the same verdict and message whatever the Set implementation,
+// and only touches the context when there is a violation.
+
+class TacoIngredientsValidatorTest {
+
+    private final IngredientCatalog catalog = new IngredientCatalog(new IngredientsSourceHardcoded());
+
+    private final TacoIngredientsValidator validator = new TacoIngredientsValidator(catalog, new SimpleMeterRegistry());
+
+    private final List<String> templates = new ArrayList<>();
+
+    private final ConstraintValidatorContext context = (ConstraintValidatorContext) Proxy.newProxyInstance(
+            getClass().getClassLoader(),
+            new Class<?>[]{ConstraintValidatorContext.class, ConstraintValidatorContext.ConstraintViolationBuilder.class},
+            (proxy, method, args) -> {
+                if (method.getName().equals("buildConstraintViolationWithTemplate")) {
+                    templates.add((String) args[0]);
+                }
+                return method.getReturnType().isInstance(proxy) ? proxy : null;
+            });
+
+    private Set<Ingredient> make(Set<Ingredient> set, String... ids) {
+        final IngredientRelation relation = catalog.get();
+        for (String id : ids) {
+            set.add(relation.getById(IngredientId.of(id)).orElseThrow());
+        }
+        return set;
+    }
+
+    @Test
+    void valid() {
+        assertAll(
+                () -> assertTrue(validator.isValid(make(new IngredientSet(), "FLTO", "GRBF", "SLSA"), context)),
+                () -> assertTrue(validator.isValid(make(new HashSet<>(), "FLTO", "GRBF", "SLSA"), context)),
+                () -> assertTrue(validator.isValid(null, context)),
+                () -> assertTrue(templates.isEmpty())
+        );
+    }
+
+    @Test
+    void missingWrap() {
+        assertFalse(validator.isValid(make(new IngredientSet(), "GRBF"), context));
+        assertFalse(validator.isValid(make(new HashSet<>(), "GRBF"), context));
+        assertEquals(List.of("Select at least one wrap", "Select at least one wrap"), templates);
+    }
+
+    @Test
+    void severalViolationsAreJoined() {
+        assertFalse(validator.isValid(make(new IngredientSet(), "FLTO", "COTO", "SLSA", "SRCR"), context));
+        assertFalse(validator.isValid(make(new LinkedHashSet<>(), "FLTO", "COTO", "SLSA", "SRCR"), context));
+        final String expected = "Select at most one wrap & Select at most one sauce";
+        assertEquals(List.of(expected, expected), templates);
+    }
+}
@@ -0,0 +1,53 @@
+package tacos.web;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import tacos.web.common.IngredientGrid;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+// The pre-rendered checkboxes are the same as those rendered by Thymeleaf, up to whitespace.
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class IngredientGridTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private IngredientGrid ingredientGrid;
+
+    // An invalid taco, so that the design page is shown again with its ingredients checked
+
+    private String renderGrid() throws Exception {
+        final String page = mockMvc.perform(post("/design")
+                        .param("name", "Bad Taco")
+                        .param("ingredients", "FLTO", "COTO", "CARN", "SLSA"))
+                .andReturn().getResponse().getContentAsString();
+        final String grid = page.substring(page.indexOf("<div class=\"grid\">"), page.indexOf("Name your taco creation"));
+        return grid.replaceAll(">\\s+", ">").replaceAll("\\s+<", "<");
+    }
+
+    @Test
+    public void sameAsThymeleaf() throws Exception {
+        assertTrue(ingredientGrid.isEnabled());
+        final String cached = renderGrid();
+        final String plain;
+        ingredientGrid.setEnabled(false);
+        try {
+            plain = renderGrid();
+        } finally {
+            ingredientGrid.setEnabled(true);
+        }
+        assertAll(
+                () -> assertEquals(plain, cached),
+                () -> assertTrue(cached.contains("<input type=\"checkbox\" value=\"CARN\" id=\"CARN\" name=\"ingredients\" checked=\"checked\"/>")),
+                () -> assertTrue(cached.contains("<input type=\"checkbox\" value=\"GRBF\" id=\"GRBF\" name=\"ingredients\"/>"))
+        );
+    }
+}
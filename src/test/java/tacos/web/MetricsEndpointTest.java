@@ -0,0 +1,56 @@
+package tacos.web;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// After a design, propose and order round, the Prometheus endpoint has histograms of the
+// handlers, the validators and the repository operations.
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class MetricsEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void prometheusHasTheTacoTimers() throws Exception {
+        final MockHttpSession session = new MockHttpSession();
+        mockMvc.perform(get("/design").session(session)).andExpect(status().isOk());
+        mockMvc.perform(post("/design").session(session)
+                        .param("name", "Metered Taco")
+                        .param("ingredients", "FLTO", "GRBF", "CHED"))
+                .andExpect(status().is3xxRedirection());
+        mockMvc.perform(get("/propose").session(session)).andExpect(status().isOk());
+        mockMvc.perform(get("/orders/current").session(session)).andExpect(status().isOk());
+        mockMvc.perform(post("/orders").session(session)
+                        .param("ccInfo.ccExpiration", "12/2080"))
+                .andExpect(status().is3xxRedirection());
+
+        final String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertContains(scrape, "http_server_requests_seconds_bucket{");
+        assertContains(scrape, "uri=\"/design\"");
+        assertContains(scrape, "uri=\"/propose\"");
+        assertContains(scrape, "uri=\"/orders\"");
+        assertContains(scrape, "tacos_validation_seconds_bucket{validator=\"ingredients\"");
+        assertContains(scrape, "tacos_validation_seconds_bucket{validator=\"ccExpiryDate\"");
+        assertContains(scrape, "tacos_jdbc_queries_seconds_bucket{operation=\"streamAll\",repository=\"ingredient\"");
+    }
+
+    private static void assertContains(String scrape, String expected) {
+        assertTrue(scrape.contains(expected), "missing: " + expected);
+    }
+}
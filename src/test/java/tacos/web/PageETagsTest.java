@@ -0,0 +1,65 @@
+package tacos.web;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+// With template caching on (as in the "prod" profile), "/" and "/design" carry an ETag
+// and a matching "If-None-Match" yields a 304 without rendering.
+
+@SpringBootTest(properties = {
+        "spring.thymeleaf.cache=true",
+        "spring.thymeleaf.prefix=classpath:/templates/"})
+@AutoConfigureMockMvc
+public class PageETagsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private String etagOf(String uri) throws Exception {
+        final MvcResult result = mockMvc.perform(get(uri)).andReturn();
+        assertEquals(200, result.getResponse().getStatus());
+        final String etag = result.getResponse().getHeader("ETag");
+        assertNotNull(etag, "ETag on " + uri);
+        assertTrue(etag.startsWith("W/\""), "weak ETag on " + uri);
+        assertEquals("private, no-cache", result.getResponse().getHeader("Cache-Control"));
+        return etag;
+    }
+
+    @Test
+    public void repeatVisitGetsNotModified() throws Exception {
+        for (String uri : new String[]{"/", "/design"}) {
+            final String etag = etagOf(uri);
+            assertEquals(etag, etagOf(uri), "stable ETag on " + uri);
+            final MvcResult again = mockMvc.perform(get(uri).header("If-None-Match", etag)).andReturn();
+            assertEquals(304, again.getResponse().getStatus(), uri);
+            assertEquals("", again.getResponse().getContentAsString(), uri);
+            final MvcResult stale = mockMvc.perform(get(uri).header("If-None-Match", "W/\"stale\"")).andReturn();
+            assertEquals(200, stale.getResponse().getStatus(), uri);
+        }
+        assertNotEquals(etagOf("/"), etagOf("/design"));
+    }
+
+    // A 304 for the design page still sets up the session, so that a taco can be posted next
+
+    @Test
+    public void sessionWorksAfterNotModified() throws Exception {
+        final String etag = etagOf("/design");
+        final MockHttpSession session = new MockHttpSession();
+        final MvcResult notModified = mockMvc.perform(get("/design").session(session).header("If-None-Match", etag)).andReturn();
+        assertEquals(304, notModified.getResponse().getStatus());
+        final MvcResult posted = mockMvc.perform(post("/design").session(session)
+                        .param("name", "After 304")
+                        .param("ingredients", "FLTO", "GRBF", "CHED", "TMTO", "SLSA"))
+                .andReturn();
+        assertEquals("/orders/current", posted.getResponse().getRedirectedUrl());
+    }
+}
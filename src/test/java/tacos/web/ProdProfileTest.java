@@ -0,0 +1,55 @@
+package tacos.web;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The "prod" profile serves content-hashed static resources with long-lived, immutable
+// Cache-Control headers and compresses responses. Compression is done by Tomcat, hence
+// a real server rather than MockMvc.
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("prod")
+public class ProdProfileTest {
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private HttpResponse<String> get(String path, String acceptEncoding) throws Exception {
+        final HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Accept-Encoding", acceptEncoding)
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    public void staticResourcesAreVersionedAndImmutable() throws Exception {
+        final HttpResponse<String> page = get("/design", "identity");
+        assertEquals(200, page.statusCode());
+        final Matcher matcher = Pattern.compile("/styles-[0-9a-f]{32}\\.css").matcher(page.body());
+        assertTrue(matcher.find(), "stylesheet link is versioned");
+        assertTrue(Pattern.compile("/images/TacoCloud-[0-9a-f]{32}\\.png").matcher(page.body()).find(), "image link is versioned");
+        final HttpResponse<String> css = get(matcher.group(), "identity");
+        assertEquals(200, css.statusCode());
+        assertEquals("max-age=31536000, public, immutable", css.headers().firstValue("Cache-Control").orElse(null));
+    }
+
+    @Test
+    public void pagesAreCompressed() throws Exception {
+        final HttpResponse<String> page = get("/design", "gzip");
+        assertEquals(200, page.statusCode());
+        assertEquals("gzip", page.headers().firstValue("Content-Encoding").orElse(null));
+    }
+}
@@ -0,0 +1,50 @@
+package tacos.web.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Draws follow the weights; zero weights are never drawn unless all weights are zero.
+
+class AliasTableTest {
+
+    private static int[] histogram(double[] weights, int draws) {
+        final AliasTable table = AliasTable.of(weights);
+        final SplittableRandom random = new SplittableRandom(17);
+        final int[] res = new int[weights.length];
+        for (int i = 0; i < draws; i++) {
+            res[table.sample(random)]++;
+        }
+        return res;
+    }
+
+    @Test
+    void drawsFollowTheWeights() {
+        final int[] counts = histogram(new double[]{1, 2, 0, 5}, 80_000);
+        assertEquals(0, counts[2]);
+        assertEquals(10_000, counts[0], 600);
+        assertEquals(20_000, counts[1], 800);
+        assertEquals(50_000, counts[3], 1000);
+    }
+
+    @Test
+    void invalidWeightsCountAsZero() {
+        final int[] counts = histogram(new double[]{-1, Double.NaN, 3, Double.POSITIVE_INFINITY}, 1000);
+        assertArrayEquals(new int[]{0, 0, 1000, 0}, counts);
+    }
+
+    @Test
+    void allZeroIsUniform() {
+        final int[] counts = histogram(new double[]{0, 0, 0, 0}, 40_000);
+        for (int count : counts) {
+            assertEquals(10_000, count, 600);
+        }
+    }
+
+    @Test
+    void noWeights() {
+        assertThrows(IllegalArgumentException.class, () -> AliasTable.of(new double[0]));
+    }
+}
@@ -0,0 +1,130 @@
+package tacos.web.common;
+
+import org.junit.jupiter.api.Test;
+import tacos.model.ingredients.Ingredient;
+import tacos.model.ingredients.IngredientCatalog;
+import tacos.model.ingredients.IngredientSet;
+import tacos.model.ingredients.IngredientType;
+import tacos.model.ingredients.source.IngredientsSourceHardcoded;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Counting accepted tacos, also from many threads, and weighting the proposals with the counts.
+
+class IngredientCoOccurrenceTest {
+
+    private final IngredientCatalog catalog = new IngredientCatalog(new IngredientsSourceHardcoded());
+
+    private final TacoProposer proposer = new TacoProposer(catalog, 4);
+
+    private static int countOfType(Set<Ingredient> ingredients, IngredientType type) {
+        return (int) ingredients.stream().filter(ingredient -> ingredient.getType() == type).count();
+    }
+
+    private Ingredient get(String id) {
+        final Ingredient res = catalog.get().findById(id);
+        assertNotNull(res, id);
+        return res;
+    }
+
+    private IngredientSet tacoOf(String... ids) {
+        final IngredientSet res = new IngredientSet();
+        for (String id : ids) {
+            res.add(get(id));
+        }
+        return res;
+    }
+
+    @Test
+    void countsPairsAndSingles() {
+        final IngredientCoOccurrence index = new IngredientCoOccurrence(proposer, true);
+        index.record(tacoOf("FLTO", "CARN", "SLSA"));
+        index.record(tacoOf("FLTO", "CARN", "SLSA"));
+        index.record(tacoOf("COTO", "CARN"));
+        assertEquals(0, index.getSnapshot().getTacos(), "nothing before the merge");
+        index.merge();
+        final IngredientCoOccurrence.Snapshot snapshot = index.getSnapshot();
+        assertEquals(3, snapshot.getTacos());
+        assertEquals(2, snapshot.count(get("FLTO"), get("CARN")));
+        assertEquals(2, snapshot.count(get("CARN"), get("FLTO")));
+        assertEquals(3, snapshot.count(get("CARN"), get("CARN")));
+        assertEquals(0, snapshot.count(get("COTO"), get("FLTO")));
+        assertEquals(0, snapshot.count(get("JACK"), get("JACK")));
+    }
+
+    @Test
+    void concurrentRecordingLosesNothing() throws InterruptedException {
+        final IngredientCoOccurrence index = new IngredientCoOccurrence(proposer, true);
+        final IngredientSet taco = tacoOf("COTO", "GRBF", "LETC");
+        final List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    index.record(taco);
+                    if (i % 1000 == 0) {
+                        index.merge(); // merging while recording
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        index.merge();
+        assertEquals(80_000, index.getSnapshot().getTacos());
+        assertEquals(80_000, index.getSnapshot().count(get("GRBF"), get("LETC")));
+    }
+
+    // The second merge copies only the rows it changed; the others keep their counts
+
+    @Test
+    void laterMergesKeepEarlierCounts() {
+        final IngredientCoOccurrence index = new IngredientCoOccurrence(proposer, true);
+        index.record(tacoOf("FLTO", "CARN"));
+        index.merge();
+        final IngredientCoOccurrence.Snapshot first = index.getSnapshot();
+        index.record(tacoOf("COTO", "GRBF"));
+        index.record(tacoOf("FLTO"));
+        index.merge();
+        final IngredientCoOccurrence.Snapshot second = index.getSnapshot();
+        assertAll(
+                () -> assertEquals(1, first.count(get("FLTO"), get("FLTO")), "earlier snapshot unchanged"),
+                () -> assertEquals(0, first.count(get("GRBF"), get("COTO"))),
+                () -> assertEquals(3, second.getTacos()),
+                () -> assertEquals(2, second.count(get("FLTO"), get("FLTO"))),
+                () -> assertEquals(1, second.count(get("CARN"), get("FLTO"))),
+                () -> assertEquals(1, second.count(get("GRBF"), get("COTO")))
+        );
+    }
+
+    // Flour tortillas always come with carnitas: proposals follow
+
+    @Test
+    void proposalsFollowWhatIsOrdered() {
+        final IngredientCoOccurrence index = new IngredientCoOccurrence(proposer, true);
+        for (int i = 0; i < 1000; i++) {
+            index.record(tacoOf("FLTO", "CARN"));
+        }
+        index.merge();
+        final SplittableRandom random = new SplittableRandom(23);
+        int flourWithOneProtein = 0;
+        int carnitas = 0;
+        for (int i = 0; i < 2000; i++) {
+            final IngredientSet proposal = proposer.proposeIngredients(random);
+            if (proposal.contains(get("FLTO")) && countOfType(proposal, IngredientType.PROTEIN) == 1) {
+                flourWithOneProtein++;
+                if (proposal.contains(get("CARN"))) {
+                    carnitas++;
+                }
+            }
+        }
+        assertTrue(flourWithOneProtein > 100, "flour tortillas are proposed most of the time");
+        assertTrue(carnitas > 0.95 * flourWithOneProtein, carnitas + " of " + flourWithOneProtein);
+    }
+}
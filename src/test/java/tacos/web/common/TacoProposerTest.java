@@ -0,0 +1,107 @@
+package tacos.web.common;
+
+import org.junit.jupiter.api.Test;
+import tacos.model.ingredients.Ingredient;
+import tacos.model.ingredients.IngredientCatalog;
+import tacos.model.ingredients.IngredientRelation;
+import tacos.model.ingredients.IngredientSet;
+import tacos.model.ingredients.IngredientType;
+import tacos.model.ingredients.source.IngredientsSourceHardcoded;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Proposals respect the rules of the ingredient types and eventually use every ingredient,
+// follow the weights, and get names not yet in the order.
+
+class TacoProposerTest {
+
+    private final IngredientCatalog catalog = new IngredientCatalog(new IngredientsSourceHardcoded());
+
+    private final TacoProposer proposer = new TacoProposer(catalog, 4);
+
+    private static int countOfType(Set<Ingredient> ingredients, IngredientType type) {
+        return (int) ingredients.stream().filter(ingredient -> ingredient.getType() == type).count();
+    }
+
+    @Test
+    void proposalsFollowTheTypeRules() {
+        final IngredientRelation relation = catalog.get();
+        final SplittableRandom random = new SplittableRandom(42);
+        final Set<Ingredient> seen = new HashSet<>();
+        for (int i = 0; i < 2000; i++) {
+            final IngredientSet proposal = proposer.proposeIngredients(random);
+            for (IngredientType type : relation.getTypesOccurring()) {
+                final int count = countOfType(proposal, type);
+                if (type.isMandatory()) {
+                    assertTrue(count >= 1, type + " is mandatory");
+                }
+                if (type.isExclusive()) {
+                    assertTrue(count <= 1, type + " is exclusive");
+                }
+            }
+            seen.addAll(proposal);
+        }
+        assertEquals(relation.size(), seen.size(), "every ingredient gets proposed");
+    }
+
+    @Test
+    void namesComeWithANumber() {
+        final SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 200; i++) {
+            final String name = proposer.proposeName(random);
+            assertTrue(name.matches("[A-Z][A-Za-z ]+ ([1-9]|[1-9][0-9])"), name);
+        }
+    }
+
+    @Test
+    void sameSeedSameProposal() {
+        assertEquals(proposer.proposeIngredients(new SplittableRandom(1)), proposer.proposeIngredients(new SplittableRandom(1)));
+    }
+
+    @Test
+    void atMostMaxPerType() {
+        final IngredientRelation relation = catalog.get();
+        final TacoProposer single = new TacoProposer(catalog, 1);
+        final SplittableRandom random = new SplittableRandom(3);
+        for (int i = 0; i < 500; i++) {
+            final IngredientSet proposal = single.proposeIngredients(random);
+            for (IngredientType type : relation.getTypesOccurring()) {
+                assertTrue(countOfType(proposal, type) <= 1, type + " has at most one");
+            }
+        }
+    }
+
+    @Test
+    void zeroWeightIsNeverProposed() {
+        final Ingredient carnitas = catalog.get().findById("CARN");
+        assertNotNull(carnitas);
+        final TacoProposer weighted = new TacoProposer(catalog, 4);
+        weighted.setWeights(ingredient -> ingredient.equals(carnitas) ? 0.0 : 1.0);
+        final SplittableRandom random = new SplittableRandom(5);
+        for (int i = 0; i < 500; i++) {
+            assertFalse(weighted.proposeIngredients(random).contains(carnitas));
+        }
+    }
+
+    @Test
+    void namesAvoidTheOrder() {
+        // all names but one taken: that one has to come up
+        final Set<String> taken = new TreeSet<>();
+        final SplittableRandom random = new SplittableRandom(11);
+        while (taken.size() < 20 * 99) {
+            taken.add(proposer.proposeName(random));
+        }
+        assertTrue(taken.remove("Hammer 42"));
+        assertEquals("Hammer 42", proposer.proposeName(random, taken));
+        // all taken: the numbers go on
+        taken.add("Hammer 42");
+        final String beyond = proposer.proposeName(random, taken);
+        assertFalse(taken.contains(beyond));
+        assertTrue(beyond.endsWith(" 100"), beyond);
+    }
+}
@@ -0,0 +1,74 @@
+package tacos.web.converters;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import tacos.model.ingredients.IngredientCatalog;
+import tacos.model.ingredients.source.IngredientsSourceHardcoded;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The converter caches results (also negative ones, apart) in a bounded cache and counts what happens.
+
+class IngredientByIdConverterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private IngredientByIdConverter makeConverter(int cacheSize) {
+        final IngredientByIdConverter converter =
+                new IngredientByIdConverter(new IngredientCatalog(new IngredientsSourceHardcoded()), cacheSize);
+        converter.bindTo(registry);
+        return converter;
+    }
+
+    private double count(String name, String result) {
+        final var search = registry.find(name).tag("cache", "ingredientById");
+        return (result == null ? search : search.tag("result", result)).functionCounter().count();
+    }
+
+    @Test
+    void hitsAndMisses() {
+        final IngredientByIdConverter converter = makeConverter(16);
+        assertEquals("Salsa", converter.convert("slsa").getName());
+        assertEquals("Salsa", converter.convert("slsa").getName());
+        assertNull(converter.convert("junk"));
+        assertNull(converter.convert("junk"));
+        assertAll(
+                () -> assertEquals(2, count("cache.gets", "hit")),
+                () -> assertEquals(2, count("cache.gets", "miss")),
+                () -> assertEquals(0, count("cache.evictions", null)),
+                () -> assertEquals(2, registry.find("cache.size").gauge().value())
+        );
+    }
+
+    @Test
+    void cacheIsBounded() {
+        final IngredientByIdConverter converter = makeConverter(4);
+        for (int i = 0; i < 100; i++) {
+            assertNull(converter.convert("junk" + i));
+        }
+        assertAll(
+                () -> assertEquals(4, converter.getCacheSize()),
+                () -> assertEquals(96, count("cache.evictions", null)),
+                () -> assertEquals("Salsa", converter.convert("SLSA").getName())
+        );
+    }
+
+    // Unknown ids have their own slots: a flood of them doesn't evict the known ones
+
+    @Test
+    void junkDoesNotEvictKnownIds() {
+        final IngredientByIdConverter converter = makeConverter(4);
+        assertEquals("Salsa", converter.convert("SLSA").getName());
+        assertEquals("Cheddar", converter.convert("CHED").getName());
+        for (int i = 0; i < 1000; i++) {
+            assertNull(converter.convert("junk" + i));
+        }
+        final double hitsBefore = count("cache.gets", "hit");
+        assertEquals("Salsa", converter.convert("SLSA").getName());
+        assertEquals("Cheddar", converter.convert("CHED").getName());
+        assertAll(
+                () -> assertEquals(hitsBefore + 2, count("cache.gets", "hit")),
+                () -> assertTrue(converter.getCacheSize() <= 8)
+        );
+    }
+}
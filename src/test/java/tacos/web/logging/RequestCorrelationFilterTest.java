@@ -0,0 +1,87 @@
+package tacos.web.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Correlation ids in the MDC and the response; sampled requests get DEBUG for the "tacos" loggers.
+
+class RequestCorrelationFilterTest {
+
+    private final LoggerContext context = new LoggerContext();
+
+    private final SampledDiagnosticsTurboFilter turboFilter = new SampledDiagnosticsTurboFilter();
+
+    @AfterEach
+    void clearMdc() {
+        MDC.clear();
+    }
+
+    private FilterReply decide(String loggerName, Level level) {
+        return turboFilter.decide(null, context.getLogger(loggerName), level, null, null, null);
+    }
+
+    @Test
+    void idInMdcAndResponse() throws Exception {
+        final AtomicReference<String> seen = new AtomicReference<>();
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        new RequestCorrelationFilter(0).doFilter(new MockHttpServletRequest(), response,
+                new MockFilterChain() {
+                    @Override
+                    public void doFilter(jakarta.servlet.ServletRequest request, jakarta.servlet.ServletResponse response) {
+                        seen.set(MDC.get(RequestCorrelationFilter.requestIdKey));
+                    }
+                });
+        assertNotNull(seen.get());
+        assertEquals(seen.get(), response.getHeader(RequestCorrelationFilter.requestIdHeader));
+        assertNull(MDC.get(RequestCorrelationFilter.requestIdKey), "removed after the request");
+    }
+
+    @Test
+    void incomingIdIsKeptIfHarmless() throws Exception {
+        final MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(RequestCorrelationFilter.requestIdHeader, "abc-123");
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        new RequestCorrelationFilter(0).doFilter(request, response, new MockFilterChain());
+        assertEquals("abc-123", response.getHeader(RequestCorrelationFilter.requestIdHeader));
+
+        final MockHttpServletRequest odd = new MockHttpServletRequest();
+        odd.addHeader(RequestCorrelationFilter.requestIdHeader, "abc\n123");
+        final MockHttpServletResponse oddResponse = new MockHttpServletResponse();
+        new RequestCorrelationFilter(0).doFilter(odd, oddResponse, new MockFilterChain());
+        assertNotEquals("abc\n123", oddResponse.getHeader(RequestCorrelationFilter.requestIdHeader));
+    }
+
+    @Test
+    void sampledRequestsGetDebug() throws Exception {
+        final AtomicReference<FilterReply> reply = new AtomicReference<>();
+        new RequestCorrelationFilter(1).doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(),
+                new MockFilterChain() {
+                    @Override
+                    public void doFilter(jakarta.servlet.ServletRequest request, jakarta.servlet.ServletResponse response) {
+                        reply.set(decide("tacos.web.DesignTacoController", Level.DEBUG));
+                    }
+                });
+        assertEquals(FilterReply.ACCEPT, reply.get());
+        assertNull(MDC.get(RequestCorrelationFilter.sampledKey), "removed after the request");
+    }
+
+    @Test
+    void otherwiseTheLevelDecides() {
+        assertEquals(FilterReply.NEUTRAL, decide("tacos.web.DesignTacoController", Level.DEBUG));
+        MDC.put(RequestCorrelationFilter.sampledKey, "true");
+        assertEquals(FilterReply.NEUTRAL, decide("tacos.web.DesignTacoController", Level.TRACE));
+        assertEquals(FilterReply.NEUTRAL, decide("tacos.web.DesignTacoController", Level.INFO));
+        assertEquals(FilterReply.NEUTRAL, decide("org.springframework.web", Level.DEBUG));
+    }
+}
@@ -0,0 +1,137 @@
+package tacos.web.session;
+
+import org.apache.catalina.Context;
+import org.apache.catalina.Manager;
+import org.apache.catalina.Session;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import tacos.TacoCloudApplication;
+
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// With "tacos.sessions.store: mvstore", sessions beyond the hot ones are swapped out to the
+// file and back in when used, and they survive a restart of the application.
+
+public class SessionStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(TacoCloudApplication.class).run(
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--logging.level.tacos=WARN",
+                "--tacos.sessions.store=mvstore",
+                "--tacos.sessions.file=" + tempDir.resolve("sessions.mv"),
+                "--tacos.sessions.hot-sessions=1",
+                "--tacos.sessions.min-idle-swap-seconds=0");
+    }
+
+    private static int port(ConfigurableApplicationContext context) {
+        return ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    private static Manager manager(ConfigurableApplicationContext context) {
+        final TomcatWebServer server = (TomcatWebServer) ((ServletWebServerApplicationContext) context).getWebServer();
+        return ((Context) server.getTomcat().getHost().findChildren()[0]).getManager();
+    }
+
+    private static HttpResponse<String> get(HttpClient client, int port, String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    public void sessionsAreSwappedOutAndSurviveRestart() throws Exception {
+        final HttpClient alice = HttpClient.newBuilder().cookieHandler(new CookieManager()).build();
+        final HttpClient bob = HttpClient.newBuilder().cookieHandler(new CookieManager()).build();
+        ConfigurableApplicationContext context = start();
+        try {
+            final int port = port(context);
+            final HotSessionsManager manager = (HotSessionsManager) manager(context);
+            assertEquals(200, get(alice, port, "/design").statusCode());
+            final HttpResponse<String> posted = alice.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/design"))
+                            .header("Content-Type", "application/x-www-form-urlencoded")
+                            .POST(HttpRequest.BodyPublishers.ofString("name=Persisted+Taco"
+                                    + "&ingredients=FLTO&ingredients=GRBF&ingredients=CHED&ingredients=TMTO&ingredients=SLSA"))
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals(302, posted.statusCode());
+            // Bob's new session pushes Alice's out of the heap
+            assertEquals(200, get(bob, port, "/design").statusCode());
+            assertEquals(1, manager.getActiveSessions());
+            assertTrue(manager.getStore().getSize() >= 1);
+            // ...and it comes back when she uses it
+            assertTrue(get(alice, port, "/orders/current").body().contains("Persisted Taco"));
+        } finally {
+            context.close();
+        }
+        context = start();
+        try {
+            assertTrue(get(alice, port(context), "/orders/current").body().contains("Persisted Taco"), "survives restart");
+        } finally {
+            context.close();
+        }
+    }
+
+    // A session whose request is still running stays on the heap, although it is the least
+    // recently used one when a new session pushes the count over the limit
+
+    @Test
+    public void sessionInUseIsNotSwappedOut() throws Exception {
+        final HttpClient alice = HttpClient.newBuilder().cookieHandler(new CookieManager()).build();
+        final HttpClient bob = HttpClient.newBuilder().cookieHandler(new CookieManager()).build();
+        final ConfigurableApplicationContext context = start();
+        try {
+            final int port = port(context);
+            final HotSessionsManager manager = (HotSessionsManager) manager(context);
+            assertEquals(200, get(alice, port, "/design").statusCode());
+            final Session aliceSession = manager.findSessions()[0];
+            Thread.sleep(20); // Alice's session is clearly the older one
+            // Alice's next request: in progress (access() called, as Tomcat does) until "finish"
+            final CountDownLatch started = new CountDownLatch(1);
+            final CountDownLatch finish = new CountDownLatch(1);
+            final CompletableFuture<Void> request = CompletableFuture.runAsync(() -> {
+                aliceSession.access();
+                started.countDown();
+                try {
+                    finish.await();
+                    aliceSession.getSession().setAttribute("written", "at the end of the request");
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    aliceSession.endAccess();
+                }
+            });
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            assertEquals(200, get(bob, port, "/design").statusCode());
+            // (Tomcat's background thread may have swapped out Bob's session meanwhile)
+            assertTrue(List.of(manager.findSessions()).contains(aliceSession), "in-use session not swapped out");
+            finish.countDown();
+            request.get(10, TimeUnit.SECONDS); // fails if the session was recycled under the request
+            assertEquals("at the end of the request", aliceSession.getSession().getAttribute("written"));
+            // Once the request is over, the limit applies again
+            manager.processPersistenceChecks();
+            assertTrue(manager.getActiveSessions() <= manager.getHotSessions());
+            assertTrue(get(alice, port, "/design").statusCode() == 200 && manager.getStore().getSize() >= 1);
+        } finally {
+            context.close();
+        }
+    }
+}